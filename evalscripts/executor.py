@@ -5,6 +5,7 @@ import pprint
 from shutil import copyfile
 import subprocess
 import sys
+import tempfile
 import xml.etree.ElementTree as ET
 from collections import OrderedDict
 from typing import Dict, Tuple, Union
@@ -19,7 +20,7 @@ def _execute(
     project_root: Union[bytes, str, os.PathLike],
     tmp_result_path: Union[bytes, str, os.PathLike],
     java_bin: Union[bytes, str, os.PathLike] = "/usr/bin/java",
-) -> None:
+) -> int:
     jar_name = "slicer-1.0-SNAPSHOT.jar"
     jar_path = os.path.join(project_root, "build", "libs")
 
@@ -28,46 +29,50 @@ def _execute(
 
     assert data is not None
 
-    results = {}
-
+    # Tasks with the same class path are sliced in one JVM. Tasks with different
+    # class paths get separate JVMs, because their class paths may hold
+    # different versions of the same class.
+    groups = OrderedDict()
     for task in data["tasks"]:
-        task_name = task["name"]
-        package = task["package"]
-        class_name = f"{package}.{task['class']}"
-        method_name = task["method"]
-        line_number = task["line"]
-        variable_name = task["variable"]
-        agent_string = "=".join([
-            os.path.join(jar_path, jar_name),
-            package,
-        ])
-        class_path = "-cp {}".format(
-            os.path.join(jar_path, jar_name)
-        )
-        if "class_path" in task:
-            class_path = "{}:{}".format(class_path, task["class_path"])
-        xml_path = os.path.join(tmp_result_path, task_name + ".xml")
-
-        app_params = [
-            java_bin,
-            f"{class_path}",
-            "de.uni_passau.fim.se2.SlicerMain",
-            f"-c {class_name}",
-            f"-m \"{method_name}\"",
-            f"-l {line_number}",
-            f"-v {variable_name}",
-            "-x",
-            f"-t {xml_path}",
-        ]
-        params = " ".join(app_params)
-
-        process = subprocess.Popen(
-            params,
-            stdout=subprocess.PIPE,
-            stderr=subprocess.PIPE,
-            shell=True,
-        )
-        out, err = process.communicate()
+        groups.setdefault(task.get("class_path"), []).append(task)
+
+    exit_status = 0
+    with tempfile.TemporaryDirectory() as group_dir:
+        for number, (task_class_path, tasks) in enumerate(groups.items()):
+            group_file = os.path.join(group_dir, f"tasks{number}.json")
+            with open(group_file, "w") as data_file:
+                json.dump({"tasks": tasks}, data_file)
+
+            class_paths = [os.path.join(jar_path, jar_name)]
+            if task_class_path is not None:
+                class_paths.append(task_class_path)
+
+            app_params = [
+                java_bin,
+                f"-cp {':'.join(class_paths)}",
+                "de.uni_passau.fim.se2.SlicerMain",
+                f"--tasks {group_file}",
+                "-x",
+                f"-t {tmp_result_path}",
+            ]
+            params = " ".join(app_params)
+
+            process = subprocess.Popen(
+                params,
+                stdout=subprocess.PIPE,
+                stderr=subprocess.PIPE,
+                shell=True,
+            )
+            out, err = process.communicate()
+
+            if process.returncode != 0:
+                _print_red(
+                    f"Slicer exited with status {process.returncode}"
+                    f" for class path {':'.join(class_paths)}"
+                )
+                print(err.decode("utf-8"))
+                exit_status = process.returncode
+    return exit_status
 
 
 def _get_coverage(
@@ -229,12 +234,14 @@ def execute(
     avg_cov = (stmt_cov + branch_cov) / 2
     print(f"    Line Cov: {stmt_cov}, Branch_Cov: {branch_cov}, Avg: {avg_cov}")
 
-    _execute(task_file, project_root, tmp_result_path)
+    exit_status = _execute(task_file, project_root, tmp_result_path)
 
     results.update(_compare_results(expected_path, tmp_result_path, task_file, error_file_path))
 
     pprint.pprint(results)
 
+    if exit_status != 0:
+        return 1
     bad = "✘"
     fishy = "∅"
     for _, value in results.items():
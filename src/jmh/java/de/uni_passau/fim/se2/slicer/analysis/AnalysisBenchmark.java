@@ -0,0 +1,131 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.util.cfg.CFGExtractor;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures every stage of the slicing pipeline in isolation. Each benchmark starts from the
+ * results of the previous stages, which are computed once per trial.
+ *
+ * <p>The subjects are the methods of the bundled examples used by {@code evalscripts/tasks.json}
+ * and, as larger inputs, two of the biggest methods of ASM itself. A subject is given as {@code
+ * Class#method}; classes without a package are taken from the examples package.
+ */
+@State(Scope.Benchmark)
+public class AnalysisBenchmark {
+
+  @Param({
+    "Calculator#evaluate",
+    "Complex#multiply",
+    "GCD#gcd",
+    "NestedLoop#nestedWhileForLoops",
+    "Rational#ofString",
+    "SimpleInteger#foo",
+    "TestClass#countFoos",
+    "org.objectweb.asm.MethodWriter#computeMaxStackAndLocal",
+    "org.objectweb.asm.ClassReader#readCode"
+  })
+  public String subject;
+
+  private ClassNode classNode;
+  private MethodNode methodNode;
+  private ProgramGraph controlFlowGraph;
+  private AnalysisContext context;
+  private Node criterion;
+
+  @Setup
+  public void setUp() throws IOException {
+    classNode = readClass(subject);
+    methodNode = findMethod(classNode, subject);
+    context = new AnalysisContext(classNode, methodNode);
+    controlFlowGraph = context.getControlFlowGraph();
+    // Warm up the shared artefacts the later stages start from
+    context.getPostDominatorTree().computeImmediatePostDominators();
+    context.getDataDependenceGraph();
+    // Slice from the store with the largest slice
+    @Var int largest = -1;
+    for (Map.Entry<Node, Set<Node>> slice :
+        new ProgramDependenceGraph(context).storeSlices().entrySet()) {
+      if (slice.getValue().size() > largest) {
+        largest = slice.getValue().size();
+        criterion = slice.getKey();
+      }
+    }
+  }
+
+  @Benchmark
+  public ProgramGraph controlFlowGraph() throws AnalyzerException {
+    return CFGExtractor.getCFG(classNode.name, methodNode);
+  }
+
+  @Benchmark
+  public ProgramGraph postDominatorTree() {
+    return new PostDominatorTree(controlFlowGraph).computeResult();
+  }
+
+  @Benchmark
+  public ProgramGraph controlDependenceGraph() {
+    return new ControlDependenceGraph(context).computeResult();
+  }
+
+  @Benchmark
+  public ProgramGraph dataDependenceGraph() {
+    return new ProgramDependenceGraph(context).computeDataDependenceGraph();
+  }
+
+  @Benchmark
+  public ProgramGraph programDependenceGraph() {
+    // The whole pipeline from byte code to the program-dependence graph
+    return new ProgramDependenceGraph(new AnalysisContext(classNode, methodNode)).computeResult();
+  }
+
+  @Benchmark
+  public Set<Node> backwardSlice() {
+    return new ProgramDependenceGraph(context).backwardSlice(criterion);
+  }
+
+  /**
+   * Reads the class of a subject.
+   *
+   * @param pSubject The subject as {@code Class#method}
+   * @return The parsed class
+   * @throws IOException In case the class cannot be read
+   */
+  public static ClassNode readClass(final String pSubject) throws IOException {
+    final String name = pSubject.substring(0, pSubject.indexOf('#'));
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    new ClassReader(name.indexOf('.') < 0 ? "de.uni_passau.fim.se2.examples." + name : name)
+        .accept(classNode, 0);
+    return classNode;
+  }
+
+  /**
+   * Finds the method of a subject, the first one with the subject's method name.
+   *
+   * @param pClassNode The class of the subject
+   * @param pSubject The subject as {@code Class#method}
+   * @return The method
+   */
+  public static MethodNode findMethod(final ClassNode pClassNode, final String pSubject) {
+    final String name = pSubject.substring(pSubject.indexOf('#') + 1);
+    return pClassNode.methods.stream()
+        .filter(method -> method.name.equals(name))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("No method " + pSubject));
+  }
+}
@@ -0,0 +1,76 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
+import de.uni_passau.fim.se2.slicer.util.cfg.CFGExtractor;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import java.util.Set;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how every stage of the slicing pipeline scales with the size of a method, on methods of
+ * the shapes of {@link SyntheticMethodGenerator}. As in {@link AnalysisBenchmark}, each stage
+ * starts from the results of the previous stages.
+ */
+@State(Scope.Benchmark)
+public class ScalingBenchmark {
+
+  @Param({"STRAIGHT_LINE", "NESTED_LOOPS", "TABLE_SWITCH", "MANY_LOCALS", "TRY_CATCH"})
+  public Shape shape;
+
+  @Param({"100", "1000", "10000", "100000"})
+  public int size;
+
+  private ClassNode classNode;
+  private MethodNode methodNode;
+  private ProgramGraph controlFlowGraph;
+  private AnalysisContext context;
+  private Node criterion;
+
+  @Setup
+  public void setUp() {
+    classNode = SyntheticMethodGenerator.generate(shape, size);
+    methodNode = SyntheticMethodGenerator.getMethod(classNode);
+    context = new AnalysisContext(classNode, methodNode);
+    controlFlowGraph = context.getControlFlowGraph();
+    context.getPostDominatorTree().computeImmediatePostDominators();
+    context.getDataDependenceGraph();
+    // The method returns its result, so the last store of the result has the largest slice
+    for (Node node : new ProgramDependenceGraph(context).storeSlices().keySet()) {
+      criterion = node;
+    }
+  }
+
+  @Benchmark
+  public ProgramGraph controlFlowGraph() throws AnalyzerException {
+    return CFGExtractor.getCFG(classNode.name, methodNode);
+  }
+
+  @Benchmark
+  public ProgramGraph postDominatorTree() {
+    return new PostDominatorTree(controlFlowGraph).computeResult();
+  }
+
+  @Benchmark
+  public ProgramGraph controlDependenceGraph() {
+    return new ControlDependenceGraph(context).computeResult();
+  }
+
+  @Benchmark
+  public ProgramGraph dataDependenceGraph() {
+    return new ProgramDependenceGraph(context).computeDataDependenceGraph();
+  }
+
+  @Benchmark
+  public Set<Node> backwardSlice() {
+    return new ProgramDependenceGraph(context).backwardSlice(criterion);
+  }
+}
@@ -0,0 +1,84 @@
+package de.uni_passau.fim.se2.slicer.util.output;
+
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisBenchmark;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.analysis.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.CFGLocalVariableTableVisitor;
+import de.uni_passau.fim.se2.slicer.util.cfg.LocalVariableTable;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the {@link Extractor}s on the largest store slice of each bundled example. The source
+ * files are looked up below the directory given by the system property {@code slicer.sources},
+ * {@code src/main/java} by default.
+ */
+@State(Scope.Benchmark)
+public class ExtractorBenchmark {
+
+  @Param({
+    "Calculator#evaluate",
+    "Complex#multiply",
+    "GCD#gcd",
+    "NestedLoop#nestedWhileForLoops",
+    "Rational#ofString",
+    "SimpleInteger#foo",
+    "TestClass#countFoos"
+  })
+  public String subject;
+
+  private ClassNode classNode;
+  private MethodNode methodNode;
+  private Map<String, LocalVariableTable> localVariableTables;
+  private Path sourceFile;
+  private Set<Node> slice;
+
+  @Setup
+  public void setUp() throws IOException {
+    classNode = AnalysisBenchmark.readClass(subject);
+    methodNode = AnalysisBenchmark.findMethod(classNode, subject);
+    final CFGLocalVariableTableVisitor visitor = new CFGLocalVariableTableVisitor();
+    new ClassReader(classNode.name).accept(visitor, 0);
+    localVariableTables = visitor.getLocalVariables();
+    sourceFile =
+        Paths.get(System.getProperty("slicer.sources", "src/main/java"), classNode.name + ".java");
+
+    for (Set<Node> storeSlice :
+        new ProgramDependenceGraph(new AnalysisContext(classNode, methodNode))
+            .storeSlices()
+            .values()) {
+      if (slice == null || storeSlice.size() > slice.size()) {
+        slice = storeSlice;
+      }
+    }
+  }
+
+  @Benchmark
+  public String byteCodeExtractor() throws IOException {
+    return new ByteCodeExtractor(slice).extract();
+  }
+
+  @Benchmark
+  public String xmlFileExtractor() throws IOException {
+    return new XMLFileExtractor(slice).extract();
+  }
+
+  @Benchmark
+  public String sourceLineExtractor() throws IOException {
+    return new SourceLineExtractor(
+            sourceFile, localVariableTables, classNode.name, methodNode, slice)
+        .extract();
+  }
+}
@@ -0,0 +1,281 @@
+package de.uni_passau.fim.se2;
+
+import com.google.common.collect.Lists;
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.batch.ClassRepository;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Answers slicing requests in a long-running process, such that JVM start-up, class loading and
+ * JIT compilation are paid once instead of once per slice. Parsed classes and the analysis
+ * contexts of sliced methods are kept warm in a {@link ClassRepository}.
+ *
+ * <p>The protocol is line based. Every request is one line holding the command-line arguments of
+ * {@link SlicerMain}, e.g., {@code -c pkg.Foo -m "bar:(I)V" -l 12 -v x}; arguments containing
+ * blanks are quoted with single or double quotes. The response consists of the output of the
+ * request followed by a line holding only {@value #END_OF_RESPONSE}; output lines starting with a
+ * dot or an exclamation mark get a dot prepended. A failed request ends its response with one line
+ * starting with {@value #ERROR_PREFIX} followed by the message; output written before the failure
+ * precedes it. The request {@value #QUIT} ends the session.
+ *
+ * <p>Sessions on standard input are trusted. Sessions on the TCP port are not: any local process
+ * can connect, so their requests must not name files or directories (see {@link
+ * SlicerMain#PATH_OPTIONS}) and are answered on the connection only.
+ */
+class SlicerDaemon {
+
+  static final String END_OF_RESPONSE = ".";
+  static final String ERROR_PREFIX = "! ";
+  static final String QUIT = "quit";
+
+  /** The number of accepted sessions that may wait for a free session thread. */
+  private static final int SESSION_QUEUE_SIZE = 50;
+
+  private final ClassRepository repository;
+
+  SlicerDaemon(final ClassRepository pRepository) {
+    repository = pRepository;
+  }
+
+  /**
+   * Answers the requests of a trusted session until the input ends or {@value #QUIT} is requested.
+   *
+   * @param pInput The reader providing the requests
+   * @param pOutput The writer receiving the responses
+   * @throws IOException In case of an IO error
+   */
+  void serve(final BufferedReader pInput, final Writer pOutput) throws IOException {
+    serve(pInput, pOutput, true);
+  }
+
+  /**
+   * Answers the requests of a session until the input ends or {@value #QUIT} is requested.
+   *
+   * @param pInput The reader providing the requests
+   * @param pOutput The writer receiving the responses
+   * @param pPathsAllowed Whether requests may name files or directories
+   * @throws IOException In case of an IO error
+   */
+  void serve(final BufferedReader pInput, final Writer pOutput, final boolean pPathsAllowed)
+      throws IOException {
+    for (@Var String line = pInput.readLine(); line != null; line = pInput.readLine()) {
+      final String request = line.trim();
+      if (request.isEmpty()) {
+        continue;
+      }
+      if (request.equals(QUIT)) {
+        break;
+      }
+      handle(request, pOutput, pPathsAllowed);
+      pOutput.flush();
+    }
+  }
+
+  /**
+   * Accepts sessions on a port of the loopback interface until the process is terminated. The
+   * sessions are served by a fixed number of threads, one per available processor; sessions
+   * exceeding these threads and a bounded queue are refused with an error line.
+   *
+   * @param pPort The port to listen on, {@code 0} for any free port
+   * @throws IOException In case the port cannot be bound
+   */
+  void listen(final int pPort) throws IOException {
+    final int threads = Runtime.getRuntime().availableProcessors();
+    final ExecutorService sessions =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(SESSION_QUEUE_SIZE),
+            runnable -> {
+              final Thread thread = new Thread(runnable, "slicer-session");
+              thread.setDaemon(true);
+              return thread;
+            });
+    try (ServerSocket serverSocket =
+        new ServerSocket(pPort, SESSION_QUEUE_SIZE, InetAddress.getLoopbackAddress())) {
+      System.err.println("Listening on port " + serverSocket.getLocalPort());
+      while (true) {
+        final Socket socket = serverSocket.accept();
+        try {
+          sessions.execute(() -> serveSocket(socket));
+        } catch (RejectedExecutionException e) {
+          try (socket) {
+            final Writer output =
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            output.write(ERROR_PREFIX + "Too many sessions\n" + END_OF_RESPONSE + '\n');
+            output.flush();
+          } catch (IOException ioe) {
+            ioe.printStackTrace();
+          }
+        }
+      }
+    } finally {
+      sessions.shutdownNow();
+    }
+  }
+
+  private void serveSocket(final Socket pSocket) {
+    try (pSocket) {
+      serve(
+          new BufferedReader(
+              new InputStreamReader(pSocket.getInputStream(), StandardCharsets.UTF_8)),
+          new BufferedWriter(
+              new OutputStreamWriter(pSocket.getOutputStream(), StandardCharsets.UTF_8)),
+          false);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Answers a single request. The output of the request is streamed to the writer while it is
+   * produced. Requests of different sessions are answered concurrently; they share parsed classes
+   * and analysis contexts through the repository.
+   *
+   * @param pRequest The arguments of the request
+   * @param pOutput The writer receiving the complete response, including its terminating line
+   * @param pPathsAllowed Whether the request may name files or directories
+   * @throws IOException In case the response cannot be written
+   */
+  void handle(final String pRequest, final Writer pOutput, final boolean pPathsAllowed)
+      throws IOException {
+    final DotStuffingWriter stuffing = new DotStuffingWriter(pOutput);
+    // The print writer swallows errors of the underlying writer, such that every IOException
+    // caught below stems from the request itself
+    final PrintWriter output = new PrintWriter(stuffing);
+    @Var String error = null;
+    try {
+      final SlicerMain slicerMain = new SlicerMain(repository);
+      slicerMain.parseArguments(tokenize(pRequest), pPathsAllowed);
+      if (slicerMain.isDaemon()) {
+        throw new ParseException("A request cannot start another daemon");
+      }
+      if (!slicerMain.run(output)) {
+        error = "Some tasks failed";
+      }
+    } catch (ParseException | IOException | RuntimeException e) {
+      error = e.getMessage() == null ? e.toString() : e.getMessage();
+    }
+    if (output.checkError()) {
+      throw new IOException("Cannot write the response");
+    }
+
+    stuffing.endLine();
+    if (error != null) {
+      pOutput.write(ERROR_PREFIX + error.replace('\n', ' ') + '\n');
+    }
+    pOutput.write(END_OF_RESPONSE + '\n');
+  }
+
+  /**
+   * Splits a request into arguments at blanks outside of quotes.
+   *
+   * @param pRequest The request
+   * @return The arguments, without their quotes
+   */
+  static String[] tokenize(final String pRequest) {
+    final List<String> arguments = Lists.newArrayList();
+    final StringBuilder current = new StringBuilder();
+    @Var boolean inArgument = false;
+    @Var char quote = 0;
+    for (int i = 0; i < pRequest.length(); i++) {
+      final char c = pRequest.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+        inArgument = true;
+      } else if (Character.isWhitespace(c)) {
+        if (inArgument) {
+          arguments.add(current.toString());
+          current.setLength(0);
+          inArgument = false;
+        }
+      } else {
+        current.append(c);
+        inArgument = true;
+      }
+    }
+    if (inArgument) {
+      arguments.add(current.toString());
+    }
+    return arguments.toArray(new String[0]);
+  }
+
+  /**
+   * Passes the output of a request on, prepending a dot to every line that starts with a dot or an
+   * exclamation mark, such that no output line can be taken for the end of the response or an
+   * error.
+   */
+  static final class DotStuffingWriter extends Writer {
+
+    private final Writer out;
+    private boolean atLineStart = true;
+
+    DotStuffingWriter(final Writer pOut) {
+      out = pOut;
+    }
+
+    @Override
+    public void write(final char[] pBuffer, final int pOffset, final int pLength)
+        throws IOException {
+      @Var int start = pOffset;
+      for (int i = pOffset; i < pOffset + pLength; i++) {
+        final char c = pBuffer[i];
+        if (atLineStart && (c == '.' || c == '!')) {
+          out.write(pBuffer, start, i - start);
+          out.write('.');
+          start = i;
+        }
+        atLineStart = c == '\n';
+      }
+      out.write(pBuffer, start, pOffset + pLength - start);
+    }
+
+    /**
+     * Terminates the last line if the output did not end with a line break.
+     *
+     * @throws IOException In case of an IO error
+     */
+    void endLine() throws IOException {
+      if (!atLineStart) {
+        out.write('\n');
+        atLineStart = true;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    /** Flushes, but leaves the underlying writer open for the rest of the session. */
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
@@ -1,9 +1,18 @@
 package de.uni_passau.fim.se2;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimaps;
 import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisMetrics;
 import de.uni_passau.fim.se2.slicer.analysis.ProgramDependenceGraph;
-import de.uni_passau.fim.se2.slicer.util.cfg.CFGLocalVariableTableVisitor;
+import de.uni_passau.fim.se2.slicer.batch.ClassRepository;
+import de.uni_passau.fim.se2.slicer.batch.ClassSlicer;
+import de.uni_passau.fim.se2.slicer.batch.CorpusSlicer;
+import de.uni_passau.fim.se2.slicer.batch.MethodSlices;
+import de.uni_passau.fim.se2.slicer.batch.SlicingTask;
 import de.uni_passau.fim.se2.slicer.util.cfg.LocalVariable;
 import de.uni_passau.fim.se2.slicer.util.cfg.LocalVariableTable;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
@@ -12,19 +21,28 @@ import de.uni_passau.fim.se2.slicer.util.output.ByteCodeExtractor;
 import de.uni_passau.fim.se2.slicer.util.output.Extractor;
 import de.uni_passau.fim.se2.slicer.util.output.SourceLineExtractor;
 import de.uni_passau.fim.se2.slicer.util.output.XMLFileExtractor;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.commons.cli.CommandLine;
-import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
@@ -35,6 +53,10 @@ import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.VarInsnNode;
 
 public class SlicerMain {
+  /** The options whose values are paths of the local file system. */
+  static final List<String> PATH_OPTIONS =
+      ImmutableList.of("sourcefile", "targetfile", "cache", "corpus", "tasks");
+
   private String className;
   private String methodName;
   private String methodDescriptor;
@@ -43,48 +65,267 @@ public class SlicerMain {
   private String sourceFilePath;
   private String targetFilePath;
   private boolean xmlExtraction = false;
+  private boolean basicBlocks = false;
+  private boolean wholeClass = false;
+  private String corpusPath;
+  private String taskFilePath;
+  private AnalysisCache cache;
+  private boolean daemon = false;
+  private int port = -1;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private boolean metricsEnabled = false;
+  private AnalysisMetrics metrics;
+  private ClassRepository repository;
   private Map<String, LocalVariableTable> localVariableTables;
   private MethodNode methodNode;
 
   public static void main(final String[] pArgs) throws IOException {
-    SlicerMain slicerMain = new SlicerMain();
-    slicerMain.parseArguments(pArgs);
-    slicerMain.run();
+    final SlicerMain slicerMain = new SlicerMain(null);
+    try {
+      slicerMain.parseArguments(pArgs);
+    } catch (final ParseException pE) {
+      System.err.println(pE.getMessage());
+      new HelpFormatter().printHelp("slicer", createOptions());
+      System.exit(1);
+      return; // Should not be necessary but pacifies the IntelliJ inspections
+    }
+
+    if (slicerMain.daemon) {
+      final SlicerDaemon slicerDaemon = new SlicerDaemon(new ClassRepository(slicerMain.cache));
+      if (slicerMain.port < 0) {
+        slicerDaemon.serve(
+            new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+            new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+      } else {
+        slicerDaemon.listen(slicerMain.port);
+      }
+      return;
+    }
+
+    final PrintWriter output = new PrintWriter(System.out);
+    final boolean success = slicerMain.run(output);
+    output.flush();
+    if (!success) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Creates a slicer for one invocation.
+   *
+   * @param pRepository The repository to take classes and analysis contexts from, or {@code null}
+   *     to create one for this invocation
+   */
+  SlicerMain(final ClassRepository pRepository) {
+    repository = pRepository;
+  }
+
+  boolean isDaemon() {
+    return daemon;
   }
 
-  /** Prevent initialisation of class */
-  private SlicerMain() {}
+  /**
+   * Performs the slicing requested by the parsed arguments.
+   *
+   * @param pOutput The writer that receives the result unless a target file is given
+   * @return {@code false} if some tasks of a task file failed, {@code true} otherwise
+   * @throws IOException In case of an IO error
+   */
+  boolean run(final PrintWriter pOutput) throws IOException {
+    if (repository == null) {
+      repository = new ClassRepository(cache);
+    }
+    if (taskFilePath != null) {
+      return runTasks(pOutput);
+    }
+    if (corpusPath != null) {
+      runCorpus(pOutput);
+      return true;
+    }
+    if (wholeClass) {
+      runWholeClass(pOutput);
+      return true;
+    }
+    writeSlice(pOutput, targetFilePath == null ? null : Paths.get(targetFilePath));
+    return true;
+  }
 
-  private void run() throws IOException {
+  /**
+   * Computes the slice of the criterion and writes it to a file or the output. If metrics are
+   * requested, their JSON summary follows the slice on the output, or is written next to the file
+   * with the suffix {@code .metrics.json}.
+   */
+  private void writeSlice(final PrintWriter pOutput, final Path pTarget) throws IOException {
     final Set<Node> backwardSlice = executeSlicing();
+    final Extractor extractor = createExtractor(methodNode, backwardSlice);
+
+    final long start = System.nanoTime();
+    if (pTarget == null) {
+      extractor.extract(pOutput);
+      pOutput.println();
+    } else {
+      extractor.extractToFile(pTarget);
+    }
+    if (metrics == null) {
+      return;
+    }
+    final AnalysisMetrics.Phase phase = metrics.phase(extractor.getClass().getSimpleName());
+    phase.addNanos(System.nanoTime() - start);
+    phase.setNodes(backwardSlice.size());
+    if (pTarget == null) {
+      pOutput.println(metrics.toJson());
+    } else {
+      Files.write(
+          pTarget.resolveSibling(pTarget.getFileName() + ".metrics.json"),
+          metrics.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+  }
 
-    final Extractor extractor;
-    if (sourceFilePath != null) {
-      extractor =
-          new SourceLineExtractor(
-              Paths.get(sourceFilePath), localVariableTables, className, methodNode, backwardSlice);
+  private Extractor createExtractor(final MethodNode pMethodNode, final Set<Node> pSlice) {
+    if (sourceFilePath != null && corpusPath == null) {
+      return new SourceLineExtractor(
+          Paths.get(sourceFilePath), localVariableTables, className, pMethodNode, pSlice);
     } else if (xmlExtraction) {
-      extractor = new XMLFileExtractor(backwardSlice);
+      return new XMLFileExtractor(pSlice);
     } else {
-      extractor = new ByteCodeExtractor(backwardSlice);
+      return new ByteCodeExtractor(pSlice);
+    }
+  }
+
+  /**
+   * Slices all store instructions of all methods of the class in parallel and prints the slices
+   * grouped by method.
+   */
+  private void runWholeClass(final PrintWriter pOutput) throws IOException {
+    final ClassNode classNode = readClass();
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    final List<MethodSlices> results;
+    try {
+      results = new ClassSlicer(pool, basicBlocks, cache).sliceClass(classNode);
+    } finally {
+      pool.shutdown();
     }
 
     if (targetFilePath == null) {
-      System.out.println(extractor.extract());
+      for (MethodSlices result : results) {
+        appendSlices(pOutput, result.getMethodName(), result);
+      }
+      pOutput.println();
     } else {
-      extractor.extractToFile(Paths.get(targetFilePath));
+      try (Writer writer =
+          Files.newBufferedWriter(Paths.get(targetFilePath), StandardCharsets.UTF_8)) {
+        for (MethodSlices result : results) {
+          appendSlices(writer, result.getMethodName(), result);
+        }
+      }
     }
   }
 
-  private Set<Node> executeSlicing() throws IOException {
-    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
-    final ClassReader classReader = new ClassReader(className);
-    classReader.accept(classNode, 0);
+  /**
+   * Slices all store instructions of all methods of all classes of a jar file or class directory
+   * and prints the slices of each method as soon as they are available. Source-line extraction is
+   * not available in this mode.
+   */
+  private void runCorpus(final PrintWriter pOutput) throws IOException {
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    final Writer writer =
+        targetFilePath == null
+            ? pOutput
+            : Files.newBufferedWriter(Paths.get(targetFilePath), StandardCharsets.UTF_8);
+    try {
+      final int methods =
+          new CorpusSlicer(pool, basicBlocks, cache)
+              .sliceCorpus(
+                  Paths.get(corpusPath),
+                  result -> {
+                    final StringBuilder builder = new StringBuilder();
+                    try {
+                      appendSlices(
+                          builder,
+                          result.getClassNode().name + "." + result.getMethodName(),
+                          result);
+                      synchronized (writer) {
+                        writer.append(builder);
+                      }
+                    } catch (IOException e) {
+                      throw new UncheckedIOException(e);
+                    }
+                  });
+      System.err.println("Sliced " + methods + " methods");
+    } finally {
+      pool.shutdown();
+      if (targetFilePath == null) {
+        writer.flush();
+      } else {
+        writer.close();
+      }
+    }
+  }
+
+  /**
+   * Slices all tasks of a task file in this process. Tasks on the same method are sliced one after
+   * another, such that they share the parsed class and the analysis context of the method. The
+   * result of every task is written to a file named after the task in the target directory, or
+   * printed under a heading if no target is given. A failed task is reported on the error stream
+   * and does not stop the remaining ones, but makes the method return {@code false}.
+   */
+  private boolean runTasks(final PrintWriter pOutput) throws IOException {
+    final List<SlicingTask> tasks = SlicingTask.readTasks(Paths.get(taskFilePath));
+    final Path targetDirectory =
+        targetFilePath == null ? null : Files.createDirectories(Paths.get(targetFilePath));
+    final String suffix = xmlExtraction ? ".xml" : ".txt";
 
-    final CFGLocalVariableTableVisitor localVariableTableVisitor =
-        new CFGLocalVariableTableVisitor();
-    classReader.accept(localVariableTableVisitor, 0);
-    localVariableTables = localVariableTableVisitor.getLocalVariables();
+    @Var int failures = 0;
+    for (SlicingTask task :
+        Multimaps.index(tasks, task -> task.getQualifiedClassName() + '.' + task.getMethod())
+            .values()) {
+      final int separator = task.getMethod().indexOf(':');
+      final SlicerMain slicer = new SlicerMain(repository);
+      slicer.className = task.getQualifiedClassName();
+      slicer.methodName = task.getMethod().substring(0, Math.max(separator, 0));
+      slicer.methodDescriptor = task.getMethod().substring(separator + 1);
+      slicer.lineNumber = task.getLine();
+      slicer.variableName = task.getVariable();
+      slicer.xmlExtraction = xmlExtraction;
+      slicer.basicBlocks = basicBlocks;
+      slicer.metricsEnabled = metricsEnabled;
+      try {
+        if (targetDirectory == null) {
+          pOutput.append("# ").append(task.getName()).append('\n');
+          slicer.writeSlice(pOutput, null);
+        } else {
+          slicer.writeSlice(pOutput, targetDirectory.resolve(task.getName() + suffix));
+        }
+      } catch (IOException | RuntimeException e) {
+        failures++;
+        System.err.println("Task " + task.getName() + " failed: " + e.getMessage());
+      }
+    }
+    System.err.println("Sliced " + (tasks.size() - failures) + " of " + tasks.size() + " tasks");
+    return failures == 0;
+  }
+
+  private void appendSlices(
+      final Appendable pOutput, final String pHeading, final MethodSlices pResult)
+      throws IOException {
+    pOutput.append("# ").append(pHeading).append('\n');
+    if (pResult.getError() != null) {
+      pOutput.append("! ").append(String.valueOf(pResult.getError())).append('\n');
+      return;
+    }
+    for (Map.Entry<Node, Set<Node>> slice : pResult.getSlices().entrySet()) {
+      pOutput.append("## ").append(slice.getKey().toString()).append('\n');
+      createExtractor(pResult.getMethodNode(), slice.getValue()).extract(pOutput);
+    }
+  }
+
+  private ClassNode readClass() throws IOException {
+    localVariableTables = repository.getLocalVariableTables(className);
+    return repository.getClassNode(className);
+  }
+
+  private Set<Node> executeSlicing() throws IOException {
+    final ClassNode classNode = readClass();
 
     methodNode =
         classNode
@@ -97,7 +338,16 @@ public class SlicerMain {
 
     Preconditions.checkState(methodNode != null, "Could not find an appropriate method!");
 
-    final ProgramDependenceGraph pdg = new ProgramDependenceGraph(classNode, methodNode);
+    final AnalysisContext context;
+    if (metricsEnabled) {
+      // A fresh context, as the shared one may have computed some phases for earlier requests
+      metrics = new AnalysisMetrics(className, methodName + ":" + methodDescriptor);
+      context = new AnalysisContext(classNode, methodNode, basicBlocks);
+      context.setMetrics(metrics);
+    } else {
+      context = repository.getContext(classNode, methodNode, basicBlocks);
+    }
+    final ProgramDependenceGraph pdg = new ProgramDependenceGraph(context);
     final Node programLocation =
         getProgramLocation(
             pdg.getControlFlowProgramGraph(),
@@ -184,7 +434,111 @@ public class SlicerMain {
     return pOpCode == Opcodes.PUTFIELD || pOpCode == Opcodes.PUTSTATIC;
   }
 
-  private void parseArguments(final String[] pArgs) {
+  /**
+   * Parses the command-line arguments of one invocation.
+   *
+   * @param pArgs The arguments
+   * @throws ParseException In case the arguments are incomplete or malformed
+   */
+  void parseArguments(final String[] pArgs) throws ParseException {
+    parseArguments(pArgs, true);
+  }
+
+  /**
+   * Parses the command-line arguments of one invocation, optionally refusing every option that
+   * names a file or directory of the local file system.
+   *
+   * @param pArgs The arguments
+   * @param pPathsAllowed Whether the arguments may name files or directories
+   * @throws ParseException In case the arguments are incomplete, malformed, or name a path although
+   *     this is not allowed
+   */
+  void parseArguments(final String[] pArgs, final boolean pPathsAllowed) throws ParseException {
+    final CommandLine cmd = new DefaultParser().parse(createOptions(), pArgs);
+    if (!pPathsAllowed) {
+      for (String option : PATH_OPTIONS) {
+        if (cmd.hasOption(option)) {
+          throw new ParseException("Option " + option + " is not allowed in this session");
+        }
+      }
+    }
+    if (!cmd.hasOption("wholeclass")
+        && !cmd.hasOption("corpus")
+        && !cmd.hasOption("daemon")
+        && !cmd.hasOption("tasks")) {
+      // A single slice needs a complete criterion
+      for (String required : new String[] {"class", "method", "linenumber", "variablename"}) {
+        if (!cmd.hasOption(required)) {
+          throw new ParseException("Missing required option: " + required);
+        }
+      }
+    }
+
+    className = cmd.getOptionValue("class");
+    if (cmd.hasOption("daemon")) {
+      daemon = true;
+      if (cmd.hasOption("port")) {
+        port = parseInt(cmd, "port");
+      }
+    } else if (cmd.hasOption("tasks")) {
+      taskFilePath = cmd.getOptionValue("tasks");
+    } else if (cmd.hasOption("wholeclass") || cmd.hasOption("corpus")) {
+      // Without a corpus, the methods of a single class are sliced
+      if (!cmd.hasOption("corpus") && !cmd.hasOption("class")) {
+        throw new ParseException("Missing required option: class");
+      }
+      wholeClass = true;
+      corpusPath = cmd.getOptionValue("corpus");
+      if (cmd.hasOption("parallelism")) {
+        parallelism = parseInt(cmd, "parallelism");
+        if (parallelism <= 0) {
+          throw new ParseException("Option parallelism needs a positive number");
+        }
+      }
+    } else {
+      variableName = cmd.getOptionValue("variablename");
+      final String[] methodInput = cmd.getOptionValue("method").split(":");
+      if (methodInput.length != 2) {
+        throw new ParseException("Method must be given as name:descriptor");
+      }
+      methodName = methodInput[0];
+      methodDescriptor = methodInput[1];
+      lineNumber = parseInt(cmd, "linenumber");
+    }
+    if (cmd.hasOption("sourcefile")) {
+      sourceFilePath = cmd.getOptionValue("sourcefile");
+    }
+    if (cmd.hasOption("targetfile")) {
+      targetFilePath = cmd.getOptionValue("targetfile");
+    }
+    if (cmd.hasOption("xmlfile")) {
+      xmlExtraction = true;
+    }
+    if (cmd.hasOption("basicblocks")) {
+      basicBlocks = true;
+    }
+    if (cmd.hasOption("metrics")) {
+      metricsEnabled = true;
+    }
+    if (cmd.hasOption("cache")) {
+      try {
+        cache = new AnalysisCache(Paths.get(cmd.getOptionValue("cache")));
+      } catch (IOException e) {
+        throw new ParseException("Cannot use cache directory: " + e.getMessage());
+      }
+    }
+  }
+
+  private static int parseInt(final CommandLine pCmd, final String pOption)
+      throws ParseException {
+    try {
+      return Integer.parseInt(pCmd.getOptionValue(pOption));
+    } catch (NumberFormatException e) {
+      throw new ParseException("Option " + pOption + " needs a number");
+    }
+  }
+
+  private static Options createOptions() {
     final Options options = new Options();
 
     final Option classNameOption = new Option("c", "class", true, "Path to the class file");
@@ -192,17 +546,17 @@ public class SlicerMain {
     options.addOption(classNameOption);
 
     final Option variableNameOption = new Option("v", "variablename", true, "Name of variable");
-    variableNameOption.setRequired(true);
+    variableNameOption.setRequired(false);
     options.addOption(variableNameOption);
 
     final Option methodOption =
         new Option("m", "method", true, "Methodname and descriptor of the method");
-    methodOption.setRequired(true);
+    methodOption.setRequired(false);
     options.addOption(methodOption);
 
     final Option lineNumberOption =
         new Option("l", "linenumber", true, "Line number where to start the slice");
-    methodOption.setRequired(true);
+    lineNumberOption.setRequired(false);
     options.addOption(lineNumberOption);
 
     final Option sourceFileOption =
@@ -221,34 +575,86 @@ public class SlicerMain {
     xmlExtractionOption.setRequired(false);
     options.addOption(xmlExtractionOption);
 
-    final CommandLineParser parser = new DefaultParser();
-    final HelpFormatter formatter = new HelpFormatter();
-    final CommandLine cmd;
+    final Option basicBlockOption =
+        new Option(
+            "b",
+            "basicblocks",
+            false,
+            "Computes the dependences on a basic-block control flow graph");
+    basicBlockOption.setRequired(false);
+    options.addOption(basicBlockOption);
+
+    final Option metricsOption =
+        new Option(
+            "i",
+            "metrics",
+            false,
+            "Reports time, graph sizes and fixpoint iterations of every phase as JSON");
+    metricsOption.setRequired(false);
+    options.addOption(metricsOption);
 
-    try {
-      cmd = parser.parse(options, pArgs);
-    } catch (final ParseException pE) {
-      // TODO can we handle this more beautiful?
-      System.err.println(pE.getMessage());
-      formatter.printHelp("slicer", options);
-      System.exit(1);
-      return; // Should not be necessary but pacifies the IntelliJ inspections
-    }
+    final Option wholeClassOption =
+        new Option(
+            "w",
+            "wholeclass",
+            false,
+            "Slices all store instructions of all methods of the class in parallel");
+    wholeClassOption.setRequired(false);
+    options.addOption(wholeClassOption);
 
-    variableName = cmd.getOptionValue("variablename");
-    className = cmd.getOptionValue("class");
-    final String[] methodInput = cmd.getOptionValue("method").split(":");
-    methodName = methodInput[0];
-    methodDescriptor = methodInput[1];
-    lineNumber = Integer.parseInt(cmd.getOptionValue("linenumber"));
-    if (cmd.hasOption("sourcefile")) {
-      sourceFilePath = cmd.getOptionValue("sourcefile");
-    }
-    if (cmd.hasOption("targetfile")) {
-      targetFilePath = cmd.getOptionValue("targetfile");
-    }
-    if (cmd.hasOption("xmlfile")) {
-      xmlExtraction = true;
-    }
+    final Option cacheOption =
+        new Option(
+            "k", "cache", true, "Directory of a persistent cache of per-method analysis results");
+    cacheOption.setRequired(false);
+    options.addOption(cacheOption);
+
+    final Option corpusOption =
+        new Option(
+            "j",
+            "corpus",
+            true,
+            "Path to a jar file or class directory whose methods are all sliced in parallel");
+    corpusOption.setRequired(false);
+    options.addOption(corpusOption);
+
+    final Option tasksOption =
+        new Option(
+            "f",
+            "tasks",
+            true,
+            "Path to a task file whose tasks are all sliced in this process; the results are"
+                + " written to the target directory");
+    tasksOption.setRequired(false);
+    options.addOption(tasksOption);
+
+    final Option parallelismOption =
+        new Option(
+            "p",
+            "parallelism",
+            true,
+            "Number of threads for the whole-class and corpus modes (default: cores)");
+    parallelismOption.setRequired(false);
+    options.addOption(parallelismOption);
+
+    final Option daemonOption =
+        new Option(
+            "d",
+            "daemon",
+            false,
+            "Answers requests holding these arguments line by line on stdin or a local port");
+    daemonOption.setRequired(false);
+    options.addOption(daemonOption);
+
+    final Option portOption =
+        new Option(
+            null,
+            "port",
+            true,
+            "Local TCP port the daemon listens on instead of stdin; requests on the port must"
+                + " not name files (-s, -t, -k, -j, -f)");
+    portOption.setRequired(false);
+    options.addOption(portOption);
+
+    return options;
   }
 }
@@ -1,15 +1,16 @@
 package de.uni_passau.fim.se2.slicer.analysis;
 
-import com.google.errorprone.annotations.Var;
-import de.uni_passau.fim.se2.slicer.util.cfg.CFGExtractor;
 import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.slicer.util.jfr.AnalysisEvent;
+import de.uni_passau.fim.se2.slicer.util.jfr.MethodEvent;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
-import org.objectweb.asm.tree.analysis.AnalyzerException;
 
 /** An abstract base class for analyses. */
 public abstract class Analysis {
 
+  final AnalysisContext context;
+
   final ProgramGraph controlFlowProgramGraph;
 
   final MethodNode methodNode;
@@ -22,28 +23,25 @@ public abstract class Analysis {
    * @param pMethodNode The {@link MethodNode} of the method that should be analysed
    */
   Analysis(final ClassNode pClassNode, final MethodNode pMethodNode) {
-    @Var ProgramGraph cfg = null;
-    if (pClassNode == null) {
-      // This should only happen under testing conditions.
-      classNode = null;
-      methodNode = null;
-      controlFlowProgramGraph = null;
-      return;
-    }
-    try {
-      cfg = CFGExtractor.getCFG(pClassNode.name, pMethodNode);
-    } catch (AnalyzerException e) {
-      e.printStackTrace();
-    }
-    controlFlowProgramGraph = cfg;
-    methodNode = pMethodNode;
-    classNode = pClassNode;
+    // A null class node should only happen under testing conditions.
+    this(new AnalysisContext(pClassNode, pMethodNode));
   }
 
   Analysis(final ProgramGraph pCFG) {
-    controlFlowProgramGraph = pCFG;
-    methodNode = null;
-    classNode = null;
+    this(new AnalysisContext(pCFG));
+  }
+
+  /**
+   * Creates a new analysis instance that shares its intermediate results with all other analyses
+   * of the same context.
+   *
+   * @param pContext The {@link AnalysisContext} of the method that should be analysed
+   */
+  Analysis(final AnalysisContext pContext) {
+    context = pContext;
+    controlFlowProgramGraph = pContext.getControlFlowGraph();
+    methodNode = pContext.getMethodNode();
+    classNode = pContext.getClassNode();
   }
 
   /**
@@ -62,4 +60,32 @@ public abstract class Analysis {
    * @return A new graph object that is the result of the analysis
    */
   public abstract ProgramGraph computeResult();
+
+  /**
+   * Starts an {@link AnalysisEvent} for the Java Flight Recorder, to be ended by {@link
+   * #commit(MethodEvent, ProgramGraph)} once the result of the analysis is known.
+   *
+   * @return The started event
+   */
+  AnalysisEvent beginEvent() {
+    final AnalysisEvent event = new AnalysisEvent(getClass().getSimpleName());
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Commits an event of this analysis if it is enabled and exceeds the recording threshold.
+   *
+   * @param pEvent The event to commit
+   * @param pResult The graph the event has produced or worked on
+   * @return {@code pResult}
+   */
+  ProgramGraph commit(final MethodEvent pEvent, final ProgramGraph pResult) {
+    if (pEvent.shouldCommit()) {
+      pEvent.setMethod(classNode == null ? null : classNode.name, methodNode);
+      pEvent.setGraph(pResult);
+      pEvent.commit();
+    }
+    return pResult;
+  }
 }
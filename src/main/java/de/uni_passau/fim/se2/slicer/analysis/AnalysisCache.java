@@ -0,0 +1,174 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import com.google.common.collect.ImmutableList;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraphSerializer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * A persistent cache of the control-flow and program-dependence graphs of methods.
+ *
+ * <p>Each method is stored in its own file in the cache directory, named by a SHA-256 hash over
+ * the owning class's name, the method's byte code and {@link #VERSION}. A context obtained for an
+ * unchanged method is seeded with the cached graphs, such that slicing needs no further analysis.
+ * For the corpus mode, the program-dependence graph of a method can also be kept as a {@link
+ * MappedDependenceGraph} next to the entry, which is sliced without deserializing any graph.
+ * Unreadable entries are silently recomputed.
+ */
+public class AnalysisCache {
+
+  /** The version of the analyses; has to be increased whenever their results change. */
+  public static final int VERSION = 2;
+
+  private static final int MAGIC = 0x53504447;
+  private static final String SUFFIX = ".pdg";
+  private static final String MAPPED_SUFFIX = ".bpdg";
+
+  private final Path directory;
+
+  /**
+   * Creates a cache in a directory, which is created if necessary.
+   *
+   * @param pDirectory The cache directory
+   * @throws IOException In case the directory cannot be created
+   */
+  public AnalysisCache(final Path pDirectory) throws IOException {
+    directory = Files.createDirectories(pDirectory);
+  }
+
+  /**
+   * Provides an analysis context for a method. If the method's graphs are cached, the context is
+   * seeded with them; otherwise the program-dependence graph is computed and stored in the cache.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method that should be analysed
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks on a cache miss
+   * @return The analysis context of the method
+   */
+  public AnalysisContext getContext(
+      final ClassNode pClassNode, final MethodNode pMethodNode, final boolean pBasicBlocks) {
+    final Path file = directory.resolve(computeKey(pClassNode, pMethodNode) + SUFFIX);
+    if (Files.isRegularFile(file)) {
+      try (DataInputStream input =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+        if (input.readInt() == MAGIC && input.readInt() == VERSION) {
+          final List<ProgramGraph> graphs =
+              ProgramGraphSerializer.read(input, pMethodNode.instructions);
+          return new AnalysisContext(
+              pClassNode, pMethodNode, pBasicBlocks, graphs.get(0), graphs.get(1));
+        }
+      } catch (IOException | RuntimeException e) {
+        // A damaged entry is overwritten below
+      }
+    }
+
+    final AnalysisContext context = new AnalysisContext(pClassNode, pMethodNode, pBasicBlocks);
+    final ProgramGraph controlFlowGraph = context.getControlFlowGraph();
+    if (controlFlowGraph != null) {
+      store(file, pMethodNode, controlFlowGraph, context.getProgramDependenceGraph());
+    }
+    return context;
+  }
+
+  /**
+   * Provides the program-dependence graph of a method as a {@link MappedDependenceGraph}. If the
+   * method's graph is cached, its file is mapped into memory; otherwise the graph is computed and
+   * written to the cache first.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method that should be analysed
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks on a cache miss
+   * @return The mapped graph, or {@code null} if no control-flow graph could be extracted
+   * @throws IOException In case the graph cannot be written or mapped
+   */
+  public MappedDependenceGraph getMappedGraph(
+      final ClassNode pClassNode, final MethodNode pMethodNode, final boolean pBasicBlocks)
+      throws IOException {
+    final Path file = directory.resolve(computeKey(pClassNode, pMethodNode) + MAPPED_SUFFIX);
+    if (Files.isRegularFile(file)) {
+      try {
+        return MappedDependenceGraph.open(file);
+      } catch (IOException e) {
+        // A damaged entry is overwritten below
+      }
+    }
+
+    final AnalysisContext context = new AnalysisContext(pClassNode, pMethodNode, pBasicBlocks);
+    if (context.getControlFlowGraph() == null) {
+      return null;
+    }
+    MappedDependenceGraph.write(context, file);
+    return MappedDependenceGraph.open(file);
+  }
+
+  private void store(
+      final Path pFile,
+      final MethodNode pMethodNode,
+      final ProgramGraph pCFG,
+      final ProgramGraph pPDG) {
+    try {
+      // Write to a private file first, such that concurrent readers never see partial entries
+      final Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+      try {
+        try (DataOutputStream output =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+          output.writeInt(MAGIC);
+          output.writeInt(VERSION);
+          ProgramGraphSerializer.write(
+              output, pMethodNode.instructions, ImmutableList.of(pCFG, pPDG));
+        }
+        Files.move(
+            temporary, pFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Computes the cache key of a method.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method
+   * @return The hexadecimal SHA-256 hash identifying the method and the analysis version
+   */
+  static String computeKey(final ClassNode pClassNode, final MethodNode pMethodNode) {
+    // The method is written into an otherwise empty class to obtain its byte code
+    final ClassWriter writer = new ClassWriter(0);
+    writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, pClassNode.name, null, "java/lang/Object", null);
+    pMethodNode.accept(writer);
+    writer.visitEnd();
+
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(Integer.toString(VERSION).getBytes(StandardCharsets.UTF_8));
+    digest.update(writer.toByteArray());
+
+    final StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return key.toString();
+  }
+}
@@ -0,0 +1,311 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import de.uni_passau.fim.se2.slicer.util.cfg.CFGExtractor;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+
+/**
+ * Holds the analysis artefacts of a single method.
+ *
+ * <p>Each artefact - control-flow graph, post-dominator tree, control-dependence graph, def/use
+ * table, data-dependence graph and program-dependence graph - is computed lazily on its first
+ * request and then handed out to every further consumer. All {@link Analysis} instances created
+ * for the same context therefore share one pipeline run, which allows to compute many slices of
+ * the same method for the cost of one.
+ *
+ * <p>The returned graphs are shared and must not be modified by consumers. A context may be used
+ * from several threads: each artefact is computed once, under the context's lock, and every
+ * thread is handed the same instance.
+ *
+ * <p>If {@link AnalysisMetrics} are attached, every artefact computed from then on is recorded as a
+ * phase of its own; the artefacts it depends on are computed and recorded before its clock starts.
+ */
+public class AnalysisContext {
+
+  private final ClassNode classNode;
+  private final MethodNode methodNode;
+  private final boolean basicBlocks;
+
+  private ProgramGraph controlFlowGraph;
+  private ProgramGraph basicBlockGraph;
+  private PostDominatorTree postDominatorTree;
+  private ProgramGraph controlDependenceGraph;
+  private DefUseTable defUseTable;
+  private ProgramGraph dataDependenceGraph;
+  private ProgramGraph programDependenceGraph;
+  private ProgramGraph reversedProgramDependenceGraph;
+
+  private AnalysisMetrics metrics;
+
+  /**
+   * Creates a new context for a method.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method that should be analysed
+   */
+  public AnalysisContext(final ClassNode pClassNode, final MethodNode pMethodNode) {
+    this(pClassNode, pMethodNode, false);
+  }
+
+  /**
+   * Creates a new context for a method.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method that should be analysed
+   * @param pBasicBlocks Whether control and data dependences should be computed on the
+   *     basic-block CFG and only then be expanded to instructions
+   */
+  public AnalysisContext(
+      final ClassNode pClassNode, final MethodNode pMethodNode, final boolean pBasicBlocks) {
+    classNode = pClassNode;
+    methodNode = pMethodNode;
+    basicBlocks = pBasicBlocks;
+  }
+
+  /**
+   * Creates a context for a method whose control-flow and program-dependence graphs are already
+   * known, e.g., from an {@link AnalysisCache}.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method that should be analysed
+   * @param pBasicBlocks Whether further dependences should be computed on basic blocks
+   * @param pCFG The control-flow graph of the method
+   * @param pPDG The program-dependence graph of the method
+   */
+  AnalysisContext(
+      final ClassNode pClassNode,
+      final MethodNode pMethodNode,
+      final boolean pBasicBlocks,
+      final ProgramGraph pCFG,
+      final ProgramGraph pPDG) {
+    this(pClassNode, pMethodNode, pBasicBlocks);
+    controlFlowGraph = pCFG;
+    programDependenceGraph = pPDG;
+  }
+
+  /**
+   * Creates a context for an already known control-flow graph that is not backed by byte code.
+   *
+   * @param pCFG The control-flow graph
+   */
+  AnalysisContext(final ProgramGraph pCFG) {
+    this(pCFG, false);
+  }
+
+  /**
+   * Creates a context for an already known control-flow graph that is not backed by byte code.
+   *
+   * @param pCFG The control-flow graph
+   * @param pBasicBlocks Whether control dependences should be computed on basic blocks
+   */
+  AnalysisContext(final ProgramGraph pCFG, final boolean pBasicBlocks) {
+    this(null, null, pBasicBlocks);
+    controlFlowGraph = pCFG;
+  }
+
+  public ClassNode getClassNode() {
+    return classNode;
+  }
+
+  public MethodNode getMethodNode() {
+    return methodNode;
+  }
+
+  public boolean usesBasicBlocks() {
+    return basicBlocks;
+  }
+
+  /**
+   * Returns the metrics the artefacts of this context are recorded in.
+   *
+   * @return The metrics, or {@code null} if none are recorded
+   */
+  public synchronized AnalysisMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Attaches metrics that record the computation of all artefacts not computed yet.
+   *
+   * @param pMetrics The metrics, or {@code null} to stop recording
+   */
+  public synchronized void setMetrics(final AnalysisMetrics pMetrics) {
+    metrics = pMetrics;
+  }
+
+  /**
+   * Returns the control-flow graph of the method.
+   *
+   * @return The control-flow graph, or {@code null} if it could not be extracted
+   */
+  public synchronized ProgramGraph getControlFlowGraph() {
+    if (controlFlowGraph == null && classNode != null) {
+      final long start = System.nanoTime();
+      try {
+        controlFlowGraph = CFGExtractor.getCFG(classNode.name, methodNode);
+      } catch (AnalyzerException e) {
+        e.printStackTrace();
+      }
+      record(AnalysisMetrics.CONTROL_FLOW_GRAPH, start, controlFlowGraph);
+    }
+    return controlFlowGraph;
+  }
+
+  /**
+   * Returns the basic-block control-flow graph of the method, collapsed from {@link
+   * #getControlFlowGraph()}.
+   *
+   * @return The basic-block control-flow graph
+   */
+  public synchronized ProgramGraph getBasicBlockGraph() {
+    if (basicBlockGraph == null) {
+      final ProgramGraph cfg = getControlFlowGraph();
+      final long start = System.nanoTime();
+      basicBlockGraph = CFGExtractor.getBasicBlockCFG(cfg);
+      record(AnalysisMetrics.BASIC_BLOCK_GRAPH, start, basicBlockGraph);
+    }
+    return basicBlockGraph;
+  }
+
+  /**
+   * Returns the post-dominator tree analysis of the method.
+   *
+   * @return The {@link PostDominatorTree}
+   */
+  public synchronized PostDominatorTree getPostDominatorTree() {
+    if (postDominatorTree == null) {
+      if (metrics == null) {
+        postDominatorTree = new PostDominatorTree(this);
+      } else {
+        getControlFlowGraph();
+        final long start = System.nanoTime();
+        postDominatorTree = new PostDominatorTree(this);
+        // The tree is computed eagerly to attribute its fixpoint to this phase
+        final int[] idoms = postDominatorTree.sharedImmediatePostDominators();
+        final AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.POST_DOMINATOR_TREE);
+        phase.addNanos(System.nanoTime() - start);
+        phase.setNodes(idoms.length);
+        phase.addIterations(postDominatorTree.getFixpointPasses());
+      }
+    }
+    return postDominatorTree;
+  }
+
+  /**
+   * Returns the control-dependence graph of the method.
+   *
+   * @return The control-dependence graph
+   */
+  public synchronized ProgramGraph getControlDependenceGraph() {
+    if (controlDependenceGraph == null) {
+      if (metrics != null) {
+        if (basicBlocks) {
+          getBasicBlockGraph();
+        } else {
+          getPostDominatorTree();
+        }
+      }
+      final long start = System.nanoTime();
+      controlDependenceGraph = new ControlDependenceGraph(this).computeResult();
+      record(AnalysisMetrics.CONTROL_DEPENDENCE_GRAPH, start, controlDependenceGraph);
+    }
+    return controlDependenceGraph;
+  }
+
+  /**
+   * Returns the def/use table of the method.
+   *
+   * @return The {@link DefUseTable}
+   * @throws AnalyzerException In case an error occurs during analysis
+   */
+  synchronized DefUseTable getDefUseTable() throws AnalyzerException {
+    if (defUseTable == null) {
+      final long start = System.nanoTime();
+      defUseTable = DataFlowAnalysis.computeDefUseTable(classNode.toString(), methodNode);
+      record(AnalysisMetrics.DEF_USE_TABLE, start, null);
+    }
+    return defUseTable;
+  }
+
+  /**
+   * Returns the data-dependence graph of the method.
+   *
+   * @return The data-dependence graph
+   */
+  public synchronized ProgramGraph getDataDependenceGraph() {
+    if (dataDependenceGraph == null) {
+      if (metrics != null) {
+        if (basicBlocks) {
+          getBasicBlockGraph();
+        } else {
+          getControlFlowGraph();
+        }
+        try {
+          getDefUseTable();
+        } catch (AnalyzerException e) {
+          // Reported again by the data-dependence analysis
+        }
+      }
+      final long start = System.nanoTime();
+      dataDependenceGraph = new ProgramDependenceGraph(this).computeDataDependenceGraph();
+      record(AnalysisMetrics.DATA_DEPENDENCE_GRAPH, start, dataDependenceGraph);
+    }
+    return dataDependenceGraph;
+  }
+
+  /**
+   * Returns the program-dependence graph of the method.
+   *
+   * @return The program-dependence graph
+   */
+  public synchronized ProgramGraph getProgramDependenceGraph() {
+    if (programDependenceGraph == null) {
+      if (metrics != null) {
+        getControlDependenceGraph();
+        getDataDependenceGraph();
+      }
+      final long start = System.nanoTime();
+      programDependenceGraph = new ProgramDependenceGraph(this).computeResult();
+      record(AnalysisMetrics.PROGRAM_DEPENDENCE_GRAPH, start, programDependenceGraph);
+    }
+    return programDependenceGraph;
+  }
+
+  /**
+   * Returns the program-dependence graph with all edges reversed, i.e., every node points to the
+   * nodes it depends on.
+   *
+   * @return The reversed program-dependence graph
+   */
+  synchronized ProgramGraph getReversedProgramDependenceGraph() {
+    if (reversedProgramDependenceGraph == null) {
+      final ProgramGraph pdg = getProgramDependenceGraph();
+      final long start = System.nanoTime();
+      reversedProgramDependenceGraph = new ProgramDependenceGraph(this).reverseGraph(pdg);
+      record(
+          AnalysisMetrics.REVERSED_PROGRAM_DEPENDENCE_GRAPH, start, reversedProgramDependenceGraph);
+    }
+    return reversedProgramDependenceGraph;
+  }
+
+  /**
+   * Records the computation of an artefact, if metrics are attached.
+   *
+   * @param pPhase The name of the phase
+   * @param pStart The {@link System#nanoTime()} at which the computation started
+   * @param pResult The computed graph, or {@code null} if the artefact is no graph
+   */
+  private void record(final String pPhase, final long pStart, final ProgramGraph pResult) {
+    if (metrics == null) {
+      return;
+    }
+    final AnalysisMetrics.Phase phase = metrics.phase(pPhase);
+    phase.addNanos(System.nanoTime() - pStart);
+    if (pResult != null) {
+      phase.setNodes(pResult.getNodes().size());
+      phase.setEdges(pResult.compact().getEdgeCount());
+    }
+  }
+}
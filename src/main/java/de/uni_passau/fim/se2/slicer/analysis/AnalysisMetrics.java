@@ -0,0 +1,139 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the wall time, result sizes and fixpoint iterations of the phases of one slicing run.
+ *
+ * <p>An {@link AnalysisContext} with metrics attached records each artefact it computes as its own
+ * phase; the time of a phase excludes the artefacts it depends on, as those are computed and
+ * recorded first. Phases appear in the order they were first recorded. The record can be rendered
+ * as JSON for machine processing.
+ */
+public class AnalysisMetrics {
+
+  public static final String CONTROL_FLOW_GRAPH = "controlFlowGraph";
+  public static final String BASIC_BLOCK_GRAPH = "basicBlockGraph";
+  public static final String POST_DOMINATOR_TREE = "postDominatorTree";
+  public static final String CONTROL_DEPENDENCE_GRAPH = "controlDependenceGraph";
+  public static final String DEF_USE_TABLE = "defUseTable";
+  public static final String DATA_DEPENDENCE_GRAPH = "dataDependenceGraph";
+  public static final String PROGRAM_DEPENDENCE_GRAPH = "programDependenceGraph";
+  public static final String REVERSED_PROGRAM_DEPENDENCE_GRAPH = "reversedProgramDependenceGraph";
+  public static final String BACKWARD_SLICE = "backwardSlice";
+
+  private final String className;
+  private final String method;
+  private final List<Phase> phases = Lists.newArrayList();
+
+  /**
+   * Creates an empty record for a method.
+   *
+   * @param pClassName The name of the class owning the method
+   * @param pMethod The method as {@code name:descriptor}
+   */
+  public AnalysisMetrics(final String pClassName, final String pMethod) {
+    className = pClassName;
+    method = pMethod;
+  }
+
+  /**
+   * Provides the record of a phase, creating it on first use.
+   *
+   * @param pName The name of the phase
+   * @return The record of the phase
+   */
+  public Phase phase(final String pName) {
+    for (Phase phase : phases) {
+      if (phase.name.equals(pName)) {
+        return phase;
+      }
+    }
+    final Phase phase = new Phase(pName);
+    phases.add(phase);
+    return phase;
+  }
+
+  public List<Phase> getPhases() {
+    return Collections.unmodifiableList(phases);
+  }
+
+  /**
+   * Renders the record as a single line of JSON: an object with the keys {@code className}, {@code
+   * method} and {@code phases}, an array of objects with the keys {@code name}, {@code nanos} and,
+   * where known, {@code nodes}, {@code edges} and {@code iterations}.
+   *
+   * @return The JSON representation
+   */
+  public String toJson() {
+    return new Gson().toJson(this);
+  }
+
+  /** The measurements of a single phase. */
+  public static final class Phase {
+
+    private final String name;
+    private long nanos;
+    private Integer nodes;
+    private Integer edges;
+    private Long iterations;
+
+    private Phase(final String pName) {
+      name = pName;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public void addNanos(final long pNanos) {
+      nanos += pNanos;
+    }
+
+    /**
+     * Provides the number of nodes of the phase's result.
+     *
+     * @return The number of nodes, or {@code null} if unknown
+     */
+    public Integer getNodes() {
+      return nodes;
+    }
+
+    public void setNodes(final int pNodes) {
+      nodes = pNodes;
+    }
+
+    /**
+     * Provides the number of edges of the phase's result.
+     *
+     * @return The number of edges, or {@code null} if unknown
+     */
+    public Integer getEdges() {
+      return edges;
+    }
+
+    public void setEdges(final int pEdges) {
+      edges = pEdges;
+    }
+
+    /**
+     * Provides the number of iterations of the phase's fixpoint computation.
+     *
+     * @return The number of iterations, or {@code null} if the phase has no fixpoint
+     */
+    public Long getIterations() {
+      return iterations;
+    }
+
+    public void addIterations(final long pIterations) {
+      iterations = iterations == null ? pIterations : iterations + pIterations;
+    }
+  }
+}
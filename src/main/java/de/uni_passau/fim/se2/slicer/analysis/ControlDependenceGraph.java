@@ -1,16 +1,13 @@
 package de.uni_passau.fim.se2.slicer.analysis;
 
+import de.uni_passau.fim.se2.slicer.util.cfg.BasicBlockNode;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
 import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
-
-import java.util.Map;
-import java.util.Set;
+import de.uni_passau.fim.se2.slicer.util.jfr.AnalysisEvent;
 
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
-import com.google.common.collect.Sets;
-
 /** Provides an analysis that implements a control-dependence tree */
 public class ControlDependenceGraph extends Analysis {
 
@@ -23,54 +20,89 @@ public class ControlDependenceGraph extends Analysis {
 		super(pCFG);
 	}
 
+	ControlDependenceGraph(final AnalysisContext pContext) {
+		super(pContext);
+	}
+
 	/**
 	 * Return a graph representing the control dependence graph of the control flow
 	 * graph, which is stored in the controlFlowProgramGraph class attribute (this
 	 * is inherited from the Analysis class).
 	 *
 	 * <p>
-	 * You may wish to use the post dominator graph code you implement to support
-	 * computing the Control Dependence ProgramGraph.
+	 * For every control-flow edge {@code A -> B} the nodes on the path from
+	 * {@code B} up the post-dominator tree to, but excluding, the immediate
+	 * post-dominator of {@code A} are control dependent on {@code A}. The walk
+	 * uses the immediate post-dominator array of {@link PostDominatorTree}, thus
+	 * every control dependence is found in a single pass over the edges.
+	 *
+	 * <p>
+	 * If the context works on basic blocks, the dependences are computed between
+	 * blocks and then expanded: every instruction of a dependent block depends on
+	 * the last instruction of the controlling block.
 	 *
 	 * @return The graph that is the resulting control-dependence graph
 	 */
 	public ProgramGraph computeResult() {
-		// TODO implement computation of control-dependence graph here
-		
-		PostDominatorTree PostDominatorGraph = new PostDominatorTree(controlFlowProgramGraph);
-		ProgramGraph PDT = PostDominatorGraph.computeResult();
+		final AnalysisEvent event = beginEvent();
+		if (context.usesBasicBlocks()) {
+			// The block-level graph is an intermediate result and is not reported on its own
+			return commit(event,
+					expandBasicBlocks(new ControlDependenceGraph(context.getBasicBlockGraph()).computeDependences()));
+		}
+		return commit(event, computeDependences());
+	}
+
+	/**
+	 * Computes the control dependences between the nodes of the control-flow graph
+	 * without recording an event.
+	 *
+	 * @return The control-dependence graph
+	 */
+	private ProgramGraph computeDependences() {
+		PostDominatorTree PostDominatorGraph = context.getPostDominatorTree();
+		final int[] immediatePostDominators = PostDominatorGraph.sharedImmediatePostDominators();
 		ProgramGraph controlDependenceGraph = new ProgramGraph();
-		Set<Node> setOfAlldependentNodes = Sets.newHashSet();
-		
-		for(Node node: controlFlowProgramGraph.getNodes()) {
+
+		for (Node node : controlFlowProgramGraph.getNodes()) {
 			controlDependenceGraph.addNode(node);
 		}
-		
-		// loop through all nodes, get successors and check if this node is a transitive
-		// successor of that successor in PDT
+
 		for (Node node : controlFlowProgramGraph.getNodes()) {
-			Set<Node> setOfdependentNodes = Sets.newHashSet();
+			final int index = PostDominatorGraph.getIndex(node);
+			if (index == PostDominatorTree.UNDEFINED) {
+				continue;
+			}
+			final int stop = immediatePostDominators[index];
 			for (Node sucessor : controlFlowProgramGraph.getSuccessors(node)) {
-				if (!PDT.getTransitiveSuccessors(sucessor).contains(node)) { // check if B is not an ancestor of A
-					Node leastCommonAncestor = PDT.getLeastCommonAncestor(node, sucessor);
-					Node current = sucessor;
-					while (!current.equals(leastCommonAncestor)) { // Traverse backward
-						setOfdependentNodes.add(current);
-						setOfAlldependentNodes.add(current);
-						current = PDT.getPredecessors(current).iterator().next(); // the set suppose to have only one //
-																					// element which is the parent
-					}
-					if (leastCommonAncestor.equals(node)) {
-						setOfdependentNodes.add(leastCommonAncestor);
-						setOfAlldependentNodes.add(leastCommonAncestor);
-					}
-					for (Node seondNode : setOfdependentNodes) {
-						controlDependenceGraph.addEdge(node, seondNode);
+				int current = PostDominatorGraph.getIndex(sucessor);
+				while (current != PostDominatorTree.UNDEFINED && current != stop) {
+					controlDependenceGraph.addEdge(node, PostDominatorGraph.getNode(current));
+					current = immediatePostDominators[current];
+				}
+			}
+		}
+
+		return controlDependenceGraph;
+	}
+
+	private ProgramGraph expandBasicBlocks(final ProgramGraph pBlockDependenceGraph) {
+		final ProgramGraph controlDependenceGraph = new ProgramGraph();
+		for (Node node : controlFlowProgramGraph.getNodes()) {
+			controlDependenceGraph.addNode(node);
+		}
+		for (Node block : pBlockDependenceGraph.getNodes()) {
+			final Node controlling = block instanceof BasicBlockNode ? ((BasicBlockNode) block).getLast() : block;
+			for (Node dependentBlock : pBlockDependenceGraph.getSuccessors(block)) {
+				if (dependentBlock instanceof BasicBlockNode) {
+					for (Node dependent : ((BasicBlockNode) dependentBlock).getNodes()) {
+						controlDependenceGraph.addEdge(controlling, dependent);
 					}
+				} else {
+					controlDependenceGraph.addEdge(controlling, dependentBlock);
 				}
 			}
 		}
-	
 		return controlDependenceGraph;
 	}
 }
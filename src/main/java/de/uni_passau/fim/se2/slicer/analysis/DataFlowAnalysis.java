@@ -1,7 +1,6 @@
 package de.uni_passau.fim.se2.slicer.analysis;
 
 import br.usp.each.saeg.asm.defuse.DefUseAnalyzer;
-import br.usp.each.saeg.asm.defuse.DefUseFrame;
 import br.usp.each.saeg.asm.defuse.Variable;
 import java.util.Collection;
 import org.objectweb.asm.tree.AbstractInsnNode;
@@ -14,9 +13,28 @@ class DataFlowAnalysis {
   /** Prevent instantiation of utility class. */
   private DataFlowAnalysis() {}
 
+  /**
+   * Runs the def/use analysis once for the whole method and returns a table that answers the
+   * def/use queries for each of its instructions.
+   *
+   * @param pOwningClass The name of the owning class
+   * @param pMethodNode The {@link MethodNode} of the method we analyse
+   * @return A {@link DefUseTable} for all instructions of {@code pMethodNode}
+   * @throws AnalyzerException In case an error occurs during analysis
+   */
+  static DefUseTable computeDefUseTable(final String pOwningClass, final MethodNode pMethodNode)
+      throws AnalyzerException {
+    final DefUseAnalyzer analyzer = new DefUseAnalyzer();
+    analyzer.analyze(pOwningClass, pMethodNode);
+    return new DefUseTable(pMethodNode.instructions, analyzer.getDefUseFrames());
+  }
+
   /**
    * Return the collection of variables that are used by the specified statement.
    *
+   * <p>This runs the full def/use analysis of the method; prefer {@link #computeDefUseTable} when
+   * querying more than one statement.
+   *
    * @param pOwningClass The name of the owning class
    * @param pMethodNode The {@link MethodNode} of the method we analyse
    * @param pStatement The instruction node of the statement we analyse
@@ -26,18 +44,15 @@ class DataFlowAnalysis {
   static Collection<Variable> usedBy(
       final String pOwningClass, final MethodNode pMethodNode, final AbstractInsnNode pStatement)
       throws AnalyzerException {
-    final DefUseAnalyzer analyzer = new DefUseAnalyzer();
-    analyzer.analyze(pOwningClass, pMethodNode);
-
-    final DefUseFrame[] frames = analyzer.getDefUseFrames();
-    final int index = pMethodNode.instructions.indexOf(pStatement);
-
-    return frames[index].getUses();
+    return computeDefUseTable(pOwningClass, pMethodNode).usedBy(pStatement);
   }
 
   /**
    * Return the collection of variables that are defined by the specified statement.
    *
+   * <p>This runs the full def/use analysis of the method; prefer {@link #computeDefUseTable} when
+   * querying more than one statement.
+   *
    * @param pOwingClass The name of the owning class
    * @param pMethodNode The {@link MethodNode} of the method we analyses
    * @param pStatement The instruction node of the statement we analyse
@@ -47,12 +62,6 @@ class DataFlowAnalysis {
   static Collection<Variable> definedBy(
       final String pOwingClass, final MethodNode pMethodNode, final AbstractInsnNode pStatement)
       throws AnalyzerException {
-    final DefUseAnalyzer analyzer = new DefUseAnalyzer();
-    analyzer.analyze(pOwingClass, pMethodNode);
-
-    final DefUseFrame[] frames = analyzer.getDefUseFrames();
-    final int index = pMethodNode.instructions.indexOf(pStatement);
-
-    return frames[index].getDefinitions();
+    return computeDefUseTable(pOwingClass, pMethodNode).definedBy(pStatement);
   }
 }
@@ -0,0 +1,62 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import br.usp.each.saeg.asm.defuse.DefUseFrame;
+import br.usp.each.saeg.asm.defuse.Variable;
+import java.util.Collection;
+import java.util.Collections;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+
+/**
+ * Holds the def/use frames of a single method, indexed by instruction.
+ *
+ * <p>The frames are computed once by {@link DataFlowAnalysis#computeDefUseTable} and can then be
+ * queried for every instruction of the method without re-running the underlying analysis.
+ */
+class DefUseTable {
+
+  private final InsnList instructions;
+  private final DefUseFrame[] frames;
+
+  DefUseTable(final InsnList pInstructions, final DefUseFrame[] pFrames) {
+    instructions = pInstructions;
+    frames = pFrames;
+  }
+
+  /**
+   * Return the collection of variables that are used by the specified statement.
+   *
+   * @param pStatement The instruction node of the statement we analyse
+   * @return A collection of {@link Variable}s that are used by the {@code pStatement}
+   */
+  Collection<Variable> usedBy(final AbstractInsnNode pStatement) {
+    final DefUseFrame frame = frameOf(pStatement);
+    if (frame == null) {
+      return Collections.emptySet();
+    }
+    return frame.getUses();
+  }
+
+  /**
+   * Return the collection of variables that are defined by the specified statement.
+   *
+   * @param pStatement The instruction node of the statement we analyse
+   * @return A collection of {@link Variable}s that are defined by the {@code pStatement}
+   */
+  Collection<Variable> definedBy(final AbstractInsnNode pStatement) {
+    final DefUseFrame frame = frameOf(pStatement);
+    if (frame == null) {
+      return Collections.emptySet();
+    }
+    return frame.getDefinitions();
+  }
+
+  private DefUseFrame frameOf(final AbstractInsnNode pStatement) {
+    if (pStatement == null) {
+      // Artificial nodes, such as entry and exit, do not carry an instruction
+      return null;
+    }
+    // The instruction list caches instruction indices, thus this lookup is constant time
+    return frames[instructions.indexOf(pStatement)];
+  }
+}
@@ -0,0 +1,477 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.util.cfg.CompactGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * A program-dependence graph in a binary format that is queried directly from a buffer, typically
+ * a memory-mapped file, without creating {@link Node} objects. {@link AnalysisCache} keeps these
+ * files for the corpus mode, which slices unchanged methods straight from them.
+ *
+ * <p>The format consists of a header (magic number, version, node count, edge count) followed by
+ * five tables with one big-endian {@code int} per node - the index of the node's instruction in
+ * the method's {@link InsnList} or {@code -1}, its line number, its {@link Node#getIndex() index}
+ * or {@code -1} for a named node, the node ids ordered by instruction index for a binary search,
+ * and the offset of its predecessor list - then the predecessor lists, and finally the names of the
+ * named nodes in the order of their ids. Each list holds the nodes a node depends on in ascending
+ * order; every entry is a varint of the difference to the previous entry, shifted left by two bits
+ * to hold the kind of the dependence ({@link #CONTROL_DEPENDENCE}, {@link #DATA_DEPENDENCE} or
+ * both). Only predecessors are stored, as they are all a backward slice needs.
+ *
+ * <p>All reads use absolute positions, so one instance can be queried by several threads.
+ */
+public final class MappedDependenceGraph {
+
+  /** The kind of an edge on which the dependent node is control dependent. */
+  public static final int CONTROL_DEPENDENCE = 1;
+
+  /** The kind of an edge on which the dependent node is data dependent. */
+  public static final int DATA_DEPENDENCE = 2;
+
+  /** Both kinds of dependences. */
+  public static final int ALL_DEPENDENCES = CONTROL_DEPENDENCE | DATA_DEPENDENCE;
+
+  private static final int MAGIC = 0x42504447;
+  private static final int VERSION = 3;
+  private static final int HEADER_SIZE = 4 * Integer.BYTES;
+  private static final int KIND_BITS = 2;
+
+  private final ByteBuffer buffer;
+  private final int size;
+  private final int edgeCount;
+  private final int linesStart;
+  private final int nodeIndicesStart;
+  private final int byInstructionStart;
+  private final int offsetsStart;
+  private final int listsStart;
+
+  /** The ids of the named nodes, typically only entry and exit, and their names. */
+  private final int[] namedNodes;
+
+  private final String[] names;
+
+  /**
+   * Creates a graph on a buffer holding the binary format, starting at its current position. The
+   * tables and predecessor lists are checked once, in a single sequential pass, such that queries
+   * on a damaged buffer cannot fail later on.
+   *
+   * @param pBuffer The buffer
+   * @throws IOException In case the buffer does not hold a valid graph
+   */
+  public MappedDependenceGraph(final ByteBuffer pBuffer) throws IOException {
+    buffer = pBuffer.slice();
+    if (buffer.remaining() < HEADER_SIZE
+        || buffer.getInt(0) != MAGIC
+        || buffer.getInt(Integer.BYTES) != VERSION) {
+      throw new IOException("Not a dependence graph of version " + VERSION);
+    }
+    size = buffer.getInt(2 * Integer.BYTES);
+    edgeCount = buffer.getInt(3 * Integer.BYTES);
+    if (size < 0 || (long) HEADER_SIZE + (5L * size + 1) * Integer.BYTES > buffer.remaining()) {
+      throw new IOException("Invalid node count " + size);
+    }
+    linesStart = HEADER_SIZE + size * Integer.BYTES;
+    nodeIndicesStart = linesStart + size * Integer.BYTES;
+    byInstructionStart = nodeIndicesStart + size * Integer.BYTES;
+    offsetsStart = byInstructionStart + size * Integer.BYTES;
+    listsStart = offsetsStart + (size + 1) * Integer.BYTES;
+    if (listsStart + buffer.getInt(offsetsStart + size * Integer.BYTES) > buffer.remaining()) {
+      throw new IOException("Truncated predecessor lists");
+    }
+    validate();
+
+    namedNodes = IntStream.range(0, size).filter(node -> getNodeIndex(node) < 0).toArray();
+    names = new String[namedNodes.length];
+    final ByteBuffer namesBuffer = buffer.duplicate();
+    namesBuffer.position(listsStart + buffer.getInt(offsetsStart + size * Integer.BYTES));
+    final byte[] nameBytes = new byte[namesBuffer.remaining()];
+    namesBuffer.get(nameBytes);
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(nameBytes))) {
+      for (int i = 0; i < names.length; i++) {
+        names[i] = input.readUTF();
+      }
+    }
+  }
+
+  /**
+   * Maps a file holding the binary format into memory.
+   *
+   * @param pFile The file to map
+   * @return The graph stored in the file
+   * @throws IOException In case of an IO error or if the file does not hold a graph
+   */
+  public static MappedDependenceGraph open(final Path pFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed
+      return new MappedDependenceGraph(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes the program-dependence graph of a method in the binary format. Node ids in the format
+   * are the ids of the graph's {@link CompactGraph}. The file is replaced atomically, so a reader
+   * sees either the old or the new graph.
+   *
+   * @param pContext The {@link AnalysisContext} of the method
+   * @param pFile The file to write to
+   * @throws IOException In case of an IO error
+   */
+  public static void write(final AnalysisContext pContext, final Path pFile) throws IOException {
+    final CompactGraph graph = pContext.getProgramDependenceGraph().compact();
+    final ProgramGraph controlDependences = pContext.getControlDependenceGraph();
+    final ProgramGraph dataDependences = pContext.getDataDependenceGraph();
+    final MethodNode methodNode = pContext.getMethodNode();
+    final int size = graph.size();
+
+    final int[] offsets = new int[size + 1];
+    final ByteArrayOutputStream lists = new ByteArrayOutputStream();
+    for (int node = 0; node < size; node++) {
+      offsets[node] = lists.size();
+      final Node target = graph.getNode(node);
+      final int[] predecessors = new int[graph.getPredecessorCount(node)];
+      for (int i = 0; i < predecessors.length; i++) {
+        predecessors[i] = graph.getPredecessor(node, i);
+      }
+      Arrays.sort(predecessors);
+      @Var int previous = 0;
+      for (int predecessor : predecessors) {
+        final Node source = graph.getNode(predecessor);
+        @Var int kind = 0;
+        if (controlDependences.getSuccessors(source).contains(target)) {
+          kind |= CONTROL_DEPENDENCE;
+        }
+        if (dataDependences.getSuccessors(source).contains(target)) {
+          kind |= DATA_DEPENDENCE;
+        }
+        writeVarint(lists, (predecessor - previous) << KIND_BITS | kind);
+        previous = predecessor;
+      }
+    }
+    offsets[size] = lists.size();
+
+    final int[] instructionIndices = new int[size];
+    final List<String> names = Lists.newArrayList();
+    for (int node = 0; node < size; node++) {
+      final Node current = graph.getNode(node);
+      instructionIndices[node] =
+          current.getInstruction() == null || methodNode == null
+              ? -1
+              : methodNode.instructions.indexOf(current.getInstruction());
+      if (current.getIndex() == Node.NO_INDEX) {
+        final String id = current.getID();
+        names.add(id.substring(1, id.length() - 1));
+      }
+    }
+    final int[] byInstruction =
+        IntStream.range(0, size)
+            .boxed()
+            .sorted(Comparator.comparingInt(node -> instructionIndices[node]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+    // Write to a private file first, such that concurrent readers never see a partial graph
+    final Path temporary =
+        Files.createTempFile(pFile.toAbsolutePath().getParent(), "graph", ".tmp");
+    try {
+      try (DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(size);
+        output.writeInt(graph.getEdgeCount());
+        for (int instructionIndex : instructionIndices) {
+          output.writeInt(instructionIndex);
+        }
+        for (int node = 0; node < size; node++) {
+          output.writeInt(graph.getNode(node).getLineNumber());
+        }
+        for (int node = 0; node < size; node++) {
+          output.writeInt(graph.getNode(node).getIndex());
+        }
+        for (int node : byInstruction) {
+          output.writeInt(node);
+        }
+        for (int offset : offsets) {
+          output.writeInt(offset);
+        }
+        lists.writeTo(output);
+        for (String name : names) {
+          output.writeUTF(name);
+        }
+      }
+      Files.move(
+          temporary, pFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getEdgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Provides the index of a node's instruction in the instruction list of its method.
+   *
+   * @param pNode The id of the node
+   * @return The instruction index, or {@code -1} if the node has no instruction
+   */
+  public int getInstructionIndex(final int pNode) {
+    return buffer.getInt(HEADER_SIZE + pNode * Integer.BYTES);
+  }
+
+  public int getLineNumber(final int pNode) {
+    return buffer.getInt(linesStart + pNode * Integer.BYTES);
+  }
+
+  /**
+   * Provides the index of the {@link Node} a node was written from.
+   *
+   * @param pNode The id of the node
+   * @return The node index, or {@link Node#NO_INDEX} for a named node
+   */
+  public int getNodeIndex(final int pNode) {
+    return buffer.getInt(nodeIndicesStart + pNode * Integer.BYTES);
+  }
+
+  /**
+   * Finds the node of an instruction by a binary search over the nodes ordered by instruction
+   * index.
+   *
+   * @param pInstructionIndex The index of the instruction in the instruction list of the method
+   * @return The id of the instruction's node, or {@link CompactGraph#NO_NODE} if there is none
+   */
+  public int findNode(final int pInstructionIndex) {
+    @Var int low = 0;
+    @Var int high = size - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final int node = buffer.getInt(byInstructionStart + middle * Integer.BYTES);
+      final int instructionIndex = getInstructionIndex(node);
+      if (instructionIndex < pInstructionIndex) {
+        low = middle + 1;
+      } else if (instructionIndex > pInstructionIndex) {
+        high = middle - 1;
+      } else {
+        return node;
+      }
+    }
+    return CompactGraph.NO_NODE;
+  }
+
+  /**
+   * Calls an action for every node a node directly depends on.
+   *
+   * @param pNode The id of the dependent node
+   * @param pKinds The kinds of dependences to follow, a combination of {@link
+   *     #CONTROL_DEPENDENCE} and {@link #DATA_DEPENDENCE}
+   * @param pAction The action that receives the ids of the predecessors
+   */
+  public void forEachPredecessor(final int pNode, final int pKinds, final IntConsumer pAction) {
+    @Var int position = listsStart + buffer.getInt(offsetsStart + pNode * Integer.BYTES);
+    final int end = listsStart + buffer.getInt(offsetsStart + (pNode + 1) * Integer.BYTES);
+    @Var int previous = 0;
+    while (position < end) {
+      // Decode one varint in place
+      @Var int value = 0;
+      @Var int shift = 0;
+      @Var byte b;
+      do {
+        b = buffer.get(position++);
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      previous += value >>> KIND_BITS;
+      if ((value & pKinds) != 0) {
+        pAction.accept(previous);
+      }
+    }
+  }
+
+  /**
+   * Computes the backward slice of a node over all dependences.
+   *
+   * @param pNode The id of the node to start the backward slice
+   * @return The ids of the nodes in the slice, including the node itself
+   */
+  public BitSet backwardSlice(final int pNode) {
+    return backwardSlice(pNode, ALL_DEPENDENCES);
+  }
+
+  /**
+   * Computes the backward slice of a node over some kinds of dependences.
+   *
+   * @param pNode The id of the node to start the backward slice
+   * @param pKinds The kinds of dependences to follow, a combination of {@link
+   *     #CONTROL_DEPENDENCE} and {@link #DATA_DEPENDENCE}
+   * @return The ids of the nodes in the slice, including the node itself
+   */
+  public BitSet backwardSlice(final int pNode, final int pKinds) {
+    final BitSet slice = new BitSet(size);
+    final int[] stack = new int[size];
+    final int[] top = {0};
+    slice.set(pNode);
+    stack[top[0]++] = pNode;
+    while (top[0] > 0) {
+      forEachPredecessor(
+          stack[--top[0]],
+          pKinds,
+          predecessor -> {
+            if (!slice.get(predecessor)) {
+              slice.set(predecessor);
+              stack[top[0]++] = predecessor;
+            }
+          });
+    }
+    return slice;
+  }
+
+  /**
+   * Computes the backward slice of every store instruction of the method, like {@link
+   * ProgramDependenceGraph#storeSlices()}. The graph itself is traversed in the buffer; {@link
+   * Node} objects are only created for the result, on the instructions of the method, such that
+   * they are equal to the nodes of a freshly computed graph.
+   *
+   * @param pInstructions The instructions of the method the graph was written for
+   * @return The backward slice of each store instruction, keyed by the instruction's node and
+   *     ordered by node index
+   * @throws IOException In case the graph does not fit the instructions
+   */
+  public Map<Node, Set<Node>> storeSlices(final InsnList pInstructions) throws IOException {
+    final Node[] nodes = new Node[size];
+    @Var int named = 0;
+    for (int node = 0; node < size; node++) {
+      final int instructionIndex = getInstructionIndex(node);
+      if (instructionIndex >= pInstructions.size()) {
+        throw new IOException("Invalid instruction index " + instructionIndex);
+      }
+      if (getNodeIndex(node) == Node.NO_INDEX) {
+        nodes[node] = new Node(names[named++]);
+      } else if (instructionIndex < 0) {
+        throw new IOException("Node " + node + " has neither an instruction nor a name");
+      } else {
+        nodes[node] =
+            Node.restore(
+                pInstructions.get(instructionIndex), getLineNumber(node), getNodeIndex(node));
+      }
+    }
+
+    final int[] criteria =
+        IntStream.range(0, size)
+            .filter(
+                node ->
+                    getNodeIndex(node) != Node.NO_INDEX
+                        && ProgramDependenceGraph.isStore(nodes[node].getInstruction()))
+            .boxed()
+            .sorted(Comparator.comparingInt(this::getNodeIndex))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    final Map<Node, Set<Node>> slices = Maps.newLinkedHashMap();
+    for (int criterion : criteria) {
+      final BitSet slice = backwardSlice(criterion);
+      final Set<Node> sliceNodes = Sets.newHashSetWithExpectedSize(slice.cardinality());
+      slice.stream().forEach(node -> sliceNodes.add(nodes[node]));
+      slices.put(nodes[criterion], sliceNodes);
+    }
+    return slices;
+  }
+
+  /**
+   * Checks that the node ids ordered by instruction index are valid and sorted, and that every
+   * predecessor list is well-formed, lies within the buffer and only refers to existing nodes.
+   *
+   * @throws IOException In case a table or list is damaged
+   */
+  private void validate() throws IOException {
+    @Var int previousInstruction = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      final int node = buffer.getInt(byInstructionStart + i * Integer.BYTES);
+      if (node < 0 || node >= size) {
+        throw new IOException("Invalid node id " + node);
+      }
+      final int instructionIndex = getInstructionIndex(node);
+      if (instructionIndex < previousInstruction) {
+        throw new IOException("Nodes are not ordered by instruction index");
+      }
+      previousInstruction = instructionIndex;
+    }
+
+    final int listsEnd = buffer.remaining();
+    @Var long edges = 0;
+    @Var int start = 0;
+    for (int node = 0; node < size; node++) {
+      if (buffer.getInt(offsetsStart + node * Integer.BYTES) != start) {
+        throw new IOException("Invalid offset of the predecessors of node " + node);
+      }
+      final int end = buffer.getInt(offsetsStart + (node + 1) * Integer.BYTES);
+      if (end < start || listsStart + (long) end > listsEnd) {
+        throw new IOException("Invalid offset of the predecessors of node " + (node + 1));
+      }
+      @Var int position = listsStart + start;
+      @Var long previous = 0;
+      while (position < listsStart + end) {
+        @Var int value = 0;
+        @Var int shift = 0;
+        @Var byte b;
+        do {
+          if (position >= listsStart + end || shift > 28) {
+            throw new IOException("Malformed predecessor list of node " + node);
+          }
+          b = buffer.get(position++);
+          value |= (b & 0x7F) << shift;
+          shift += 7;
+        } while (b < 0);
+        previous += value >>> KIND_BITS;
+        if (previous >= size) {
+          throw new IOException("Invalid predecessor " + previous + " of node " + node);
+        }
+        edges++;
+      }
+      start = end;
+    }
+    if (edges != edgeCount) {
+      throw new IOException("Edge count " + edgeCount + " does not match " + edges + " edges");
+    }
+  }
+
+  private static void writeVarint(final ByteArrayOutputStream pOutput, final int pValue) {
+    @Var int value = pValue;
+    while ((value & ~0x7F) != 0) {
+      pOutput.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    pOutput.write(value);
+  }
+}
@@ -1,13 +1,14 @@
 package de.uni_passau.fim.se2.slicer.analysis;
 
+import de.uni_passau.fim.se2.slicer.util.cfg.CompactGraph;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
 import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.slicer.util.jfr.AnalysisEvent;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -18,6 +19,20 @@ import com.google.common.collect.Sets;
 /** Provides an analyses calculating a post-dominator tree. */
 public class PostDominatorTree extends Analysis {
 
+	/** Marks a node without immediate post-dominator: the exit node or a node that cannot reach it. */
+	public static final int UNDEFINED = -1;
+
+	/** The nodes of the control-flow graph indexed by their postorder number in the reverse graph. */
+	private Node[] nodes;
+	/** The snapshot of the control-flow graph the numbering is based on. */
+	private CompactGraph graph;
+	/** The node number of every node id of {@link #graph}, or {@link #UNDEFINED}. */
+	private int[] numbers;
+	/** The immediate post-dominator of every node, as index into {@link #nodes}. */
+	private int[] immediatePostDominators;
+	/** The number of passes the fixpoint of {@link #computeIdoms()} needed. */
+	private int passes;
+
 	PostDominatorTree(final ClassNode pClassNode, final MethodNode pMethodNode) {
 		super(pClassNode, pMethodNode);
 	}
@@ -26,6 +41,10 @@ public class PostDominatorTree extends Analysis {
 		super(pCFG);
 	}
 
+	PostDominatorTree(final AnalysisContext pContext) {
+		super(pContext);
+	}
+
 	/**
 	 * Return a graph representing the post-dominator tree of the control flow
 	 * graph, which is stored in the controlFlowProgramGraph class attribute (this
@@ -35,45 +54,103 @@ public class PostDominatorTree extends Analysis {
 	 *         graph
 	 */
 	public ProgramGraph computeResult() {
-		// TODO implement computation of post-dominance tree here
-		Map<Node, Set<Node>> Dominates = Maps.newHashMap();
-		Queue<Node> queue = new LinkedList<Node>();
+		final AnalysisEvent event = beginEvent();
+		final int[] idoms = sharedImmediatePostDominators();
 		final ProgramGraph postDominatorGraph = new ProgramGraph();
-		final ProgramGraph reversedGraph = reverseGraph(controlFlowProgramGraph);
-
-		// the computeDominance method returns unmodifiable sets,this loop copy the
-		// return into new map-- naive solution
-		for (Node node : reversedGraph.getNodes()) {
-			Set<Node> transeferDominators = Sets.newHashSet();
-			transeferDominators.addAll(computeDominance().get(node));
-			Dominates.put(node, transeferDominators);
+		if (nodes.length == 0) {
+			return commit(event, postDominatorGraph);
 		}
+		// The exit node has the highest postorder number; walking downwards visits every
+		// post-dominator before the nodes it post-dominates
+		postDominatorGraph.addNode(nodes[nodes.length - 1]);
+		for (int i = nodes.length - 2; i >= 0; i--) {
+			if (idoms[i] == UNDEFINED) {
+				continue;
+			}
+			postDominatorGraph.addNode(nodes[i]);
+			postDominatorGraph.addEdge(nodes[idoms[i]], nodes[i]);
+		}
+		return commit(event, postDominatorGraph);
+	}
 
-		postDominatorGraph.addNode(reversedGraph.getEntry());
-		queue.add(reversedGraph.getEntry());
+	/**
+	 * Computes the immediate post-dominator of every node using the iterative
+	 * algorithm of Cooper, Harvey and Kennedy on the reverse control-flow graph.
+	 * Nodes are numbered by their postorder in a depth-first search of the reverse
+	 * graph starting at the exit node; use {@link #getNode(int)} and
+	 * {@link #getIndex(Node)} to translate between numbers and nodes.
+	 *
+	 * @return A fresh array mapping each node number to the number of its
+	 *         immediate post-dominator, or {@link #UNDEFINED} for the exit node and
+	 *         nodes that cannot reach the exit
+	 */
+	public int[] computeImmediatePostDominators() {
+		return sharedImmediatePostDominators().clone();
+	}
 
-		for (Node node : reversedGraph.getNodes()) {
-			Dominates.get(node).remove(node);
-		}
+	/**
+	 * Returns the immediate post-dominator of a node.
+	 *
+	 * @param pIndex The node number
+	 * @return The number of the immediate post-dominator, or {@link #UNDEFINED}
+	 *         for the exit node and nodes that cannot reach the exit
+	 * @see #computeImmediatePostDominators()
+	 */
+	public int getImmediatePostDominator(final int pIndex) {
+		return sharedImmediatePostDominators()[pIndex];
+	}
 
-		while (!queue.isEmpty()) {
-			Node m = queue.remove();
-			for (Node node : reversedGraph.getNodes()) {
-				if (!Dominates.get(node).isEmpty()) {
-					if (Dominates.get(node).contains(m)) {
-						Dominates.get(node).remove(m);
-						if (Dominates.get(node).isEmpty()) {
-							postDominatorGraph.addNode(node);
-							postDominatorGraph.addEdge(m, node);
-							queue.add(node);
-						}
-					}
-				}
-			}
+	/**
+	 * Provides the cached result of {@link #computeImmediatePostDominators()}
+	 * without copying it. The tree is shared between threads, so callers must not
+	 * modify the array.
+	 *
+	 * @return The immediate post-dominator of every node number
+	 */
+	synchronized int[] sharedImmediatePostDominators() {
+		if (immediatePostDominators == null) {
+			numberNodes();
+			immediatePostDominators = computeIdoms();
 		}
-		return postDominatorGraph;
+		return immediatePostDominators;
 	}
-	
+
+	/**
+	 * Returns the number of passes over all nodes the fixpoint of
+	 * {@link #computeImmediatePostDominators()} needed, including the final pass
+	 * that confirmed the result.
+	 *
+	 * @return The number of passes, or {@code 0} if the immediate post-dominators
+	 *         have not been computed yet
+	 */
+	public synchronized int getFixpointPasses() {
+		return passes;
+	}
+
+	/**
+	 * Returns the node with the given number of {@link #computeImmediatePostDominators()}.
+	 *
+	 * @param pIndex The node number
+	 * @return The corresponding {@link Node}
+	 */
+	public Node getNode(final int pIndex) {
+		sharedImmediatePostDominators();
+		return nodes[pIndex];
+	}
+
+	/**
+	 * Returns the number of a node as used by {@link #computeImmediatePostDominators()}.
+	 *
+	 * @param pNode A node of the control-flow graph
+	 * @return The node number, or {@link #UNDEFINED} if the node cannot reach the
+	 *         exit node
+	 */
+	public int getIndex(final Node pNode) {
+		sharedImmediatePostDominators();
+		final int id = graph.getId(pNode);
+		return id == CompactGraph.NO_NODE ? UNDEFINED : numbers[id];
+	}
+
 	/**
 	 * Return a map representing the post-dominators for each node in the control flow
 	 * graph, which is stored in the controlFlowProgramGraph class attribute (this
@@ -84,46 +161,22 @@ public class PostDominatorTree extends Analysis {
 	 */
 
 	public Map<Node, Set<Node>> computeDominance() {
-
-		ProgramGraph reversedGraph = reverseGraph(controlFlowProgramGraph);
-		Map<Node, Set<Node>> dependencyMap = Maps.newHashMap();
-		Set<Node> set = Sets.newHashSet();
-		Set<Node> reversedGraphNodes = reversedGraph.getNodes();
-		Node entry = reversedGraph.getEntry();
-		set.add(entry);
-		dependencyMap.put(entry, set);
-
-		for (Node node : reversedGraphNodes) {
-			if (node.equals(entry)) {
-				continue;
+		final int[] idoms = sharedImmediatePostDominators();
+		final Map<Node, Set<Node>> dependencyMap = Maps.newHashMap();
+		for (int i = 0; i < nodes.length; i++) {
+			final Set<Node> dominators = Sets.newHashSet();
+			int current = i;
+			dominators.add(nodes[current]);
+			while (idoms[current] != UNDEFINED) {
+				current = idoms[current];
+				dominators.add(nodes[current]);
 			}
-			dependencyMap.put(node, reversedGraphNodes);
+			dependencyMap.put(nodes[i], dominators);
 		}
-		boolean changed = true;
-		while (changed) {
-			changed = false;
-			for (Node node : reversedGraphNodes) {
-				Set<Node> newDominators = Sets.newHashSet();
-				Set<Node> currentDominators = Sets.newHashSet();
-				if (node.equals(entry)) {
-					continue;
-				}
-				currentDominators = dependencyMap.get(node);
-				boolean first = true;
-				for (Node predecessor : reversedGraph.getPredecessors(node)) {
-					if (first) {
-						newDominators.addAll(dependencyMap.get(predecessor));
-						first = false;
-					} else {
-						newDominators.retainAll(dependencyMap.get(predecessor));
-					}
-				}
-				newDominators.add(node);
-
-				if (!currentDominators.equals(newDominators)) {
-					dependencyMap.put(node, newDominators);
-					changed = true;
-				}
+		// Nodes that cannot reach the exit are post-dominated by every node
+		for (Node node : controlFlowProgramGraph.getNodes()) {
+			if (getIndex(node) == UNDEFINED) {
+				dependencyMap.put(node, controlFlowProgramGraph.getNodes());
 			}
 		}
 		return dependencyMap;
@@ -137,10 +190,10 @@ public class PostDominatorTree extends Analysis {
 	 * @return The reverse of the {@link ProgramGraph} {@code cfg}
 	 */
 	ProgramGraph reverseGraph(final ProgramGraph pCFG) {
-		// TODO implement graph reversal here
 		final ProgramGraph reversedGraph = new ProgramGraph();
+		final Node entry = pCFG.getEntry();
 		for (Node node : pCFG.getNodes()) {
-			if (node.equals(pCFG.getEntry())) {
+			if (node.equals(entry)) {
 				continue;
 			}
 			reversedGraph.addNode(node);
@@ -151,4 +204,107 @@ public class PostDominatorTree extends Analysis {
 		}
 		return reversedGraph;
 	}
+
+	/**
+	 * Numbers the nodes in postorder of an iterative depth-first search on the
+	 * reverse control-flow graph, i.e., following predecessor edges from the exit.
+	 */
+	private void numberNodes() {
+		graph = controlFlowProgramGraph.compact();
+		final int size = graph.size();
+		numbers = new int[size];
+		Arrays.fill(numbers, UNDEFINED);
+		final int exit = graph.getExit();
+		if (exit == CompactGraph.NO_NODE) {
+			nodes = new Node[0];
+			return;
+		}
+		final Node[] postorder = new Node[size];
+		final int[] nodeStack = new int[size];
+		final int[] predecessorStack = new int[size];
+		final BitSet visited = new BitSet(size);
+		int count = 0;
+		int depth = 0;
+		visited.set(exit);
+		nodeStack[0] = exit;
+		while (depth >= 0) {
+			final int node = nodeStack[depth];
+			if (predecessorStack[depth] < graph.getPredecessorCount(node)) {
+				final int predecessor = graph.getPredecessor(node, predecessorStack[depth]++);
+				if (!visited.get(predecessor)) {
+					visited.set(predecessor);
+					depth++;
+					nodeStack[depth] = predecessor;
+					predecessorStack[depth] = 0;
+				}
+			} else {
+				depth--;
+				numbers[node] = count;
+				postorder[count++] = graph.getNode(node);
+			}
+		}
+		nodes = Arrays.copyOf(postorder, count);
+	}
+
+	private int[] computeIdoms() {
+		final int size = nodes.length;
+		final int[] idoms = new int[size];
+		Arrays.fill(idoms, UNDEFINED);
+		if (size == 0) {
+			return idoms;
+		}
+		final int root = size - 1;
+
+		// The predecessors in the reverse graph are the successors in the control-flow graph
+		final int[][] reversePredecessors = new int[size][];
+		for (int i = 0; i < size; i++) {
+			final int id = graph.getId(nodes[i]);
+			final int[] predecessors = new int[graph.getSuccessorCount(id)];
+			int count = 0;
+			for (int s = 0; s < predecessors.length; s++) {
+				final int number = numbers[graph.getSuccessor(id, s)];
+				if (number != UNDEFINED) {
+					predecessors[count++] = number;
+				}
+			}
+			reversePredecessors[i] = count == predecessors.length ? predecessors : Arrays.copyOf(predecessors, count);
+		}
+
+		idoms[root] = root;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			passes++;
+			// Reverse postorder of the reverse graph, skipping the root
+			for (int node = root - 1; node >= 0; node--) {
+				int newIdom = UNDEFINED;
+				for (int predecessor : reversePredecessors[node]) {
+					if (idoms[predecessor] == UNDEFINED) {
+						continue;
+					}
+					newIdom = newIdom == UNDEFINED ? predecessor : intersect(idoms, predecessor, newIdom);
+				}
+				if (idoms[node] != newIdom) {
+					idoms[node] = newIdom;
+					changed = true;
+				}
+			}
+		}
+		idoms[root] = UNDEFINED;
+		return idoms;
+	}
+
+	private static int intersect(final int[] pIdoms, final int pFirst, final int pSecond) {
+		int first = pFirst;
+		int second = pSecond;
+		while (first != second) {
+			while (first < second) {
+				first = pIdoms[first];
+			}
+			while (second < first) {
+				second = pIdoms[second];
+			}
+		}
+		return first;
+	}
 }
@@ -1,25 +1,44 @@
 package de.uni_passau.fim.se2.slicer.analysis;
 
+import de.uni_passau.fim.se2.slicer.util.cfg.CompactGraph;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
 import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.StronglyConnectedComponents;
+import de.uni_passau.fim.se2.slicer.util.jfr.AnalysisEvent;
+import de.uni_passau.fim.se2.slicer.util.jfr.BackwardSliceEvent;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.analysis.AnalyzerException;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
-import br.usp.each.saeg.asm.defuse.Variable;
-
 /** Provides an analysis that calculates the program-dependence graph. */
 public class ProgramDependenceGraph extends Analysis {
 	public ProgramDependenceGraph(final ClassNode pClassNode, final MethodNode pMethodNode) {
 		super(pClassNode, pMethodNode);
 	}
+
+	/**
+	 * Creates a program-dependence graph analysis that reuses the control-flow,
+	 * control-dependence and data-dependence graphs already computed for the
+	 * method.
+	 *
+	 * @param pContext The {@link AnalysisContext} of the method
+	 */
+	public ProgramDependenceGraph(final AnalysisContext pContext) {
+		super(pContext);
+	}
 	
 	/**
 	 * Return a graph representing the Program Dependence ProgramGraph of the
@@ -35,139 +54,207 @@ public class ProgramDependenceGraph extends Analysis {
 	 *         graph
 	 */
 	public ProgramGraph computeResult() {
-		// TODO implement computation of program-dependence graph here
-
-		ControlDependenceGraph CDG = new ControlDependenceGraph(classNode, methodNode);
-		ProgramGraph prgramDependencyGraph = CDG.computeResult();
-		ProgramGraph dataDependenceGraph = computeDataDependenceGraph();
-		for (Node node : CDG.computeResult().getNodes()) {
-			Set<Node> predecessors = dataDependenceGraph.getPredecessors(node);
-			Set<Node> successors = dataDependenceGraph.getSuccessors(node);
-			for (Node pre : predecessors) {
-				prgramDependencyGraph.addEdge(pre, node);
+		final AnalysisEvent event = beginEvent();
+		ProgramGraph controlDependenceGraph = context.getControlDependenceGraph();
+		ProgramGraph dataDependenceGraph = context.getDataDependenceGraph();
+		ProgramGraph prgramDependencyGraph = new ProgramGraph();
+		for (Node node : controlDependenceGraph.getNodes()) {
+			prgramDependencyGraph.addNode(node);
+		}
+		for (Node node : controlDependenceGraph.getNodes()) {
+			for (Node suc : controlDependenceGraph.getSuccessors(node)) {
+				prgramDependencyGraph.addEdge(node, suc);
 			}
-			for (Node suc : successors) {
+			for (Node suc : dataDependenceGraph.getSuccessors(node)) {
 				prgramDependencyGraph.addEdge(node, suc);
 			}
 		}
-		return prgramDependencyGraph;
+		return commit(event, prgramDependencyGraph);
 	}
 
 	/**
 	 * Compute the set of nodes that belong to a backward slice, computed from a
-	 * given node in the program dependence graph.
+	 * given node in the program dependence graph. The program-dependence graph is
+	 * built and reversed only once per {@link AnalysisContext}.
 	 *
 	 * @param pNode The {@link Node} to start the backward slice
 	 * @return A set of nodes that represent the backward slice
 	 */
 
 	public Set<Node> backwardSlice(final Node pNode) {
-		// TODO implement backward slicing here
-		ProgramGraph reversedGraph = reverseGraph(computeResult());
-		Set<Node> slicedNodes = (Set<Node>) reversedGraph.getTransitiveSuccessors(pNode);
+		final BackwardSliceEvent event = new BackwardSliceEvent();
+		event.begin();
+		ProgramGraph reversedGraph = context.getReversedProgramDependenceGraph();
+		final long start = System.nanoTime();
+		Set<Node> slicedNodes = reversedGraph.getTransitiveSuccessors(pNode);
 		slicedNodes.add(pNode);
+		if (event.shouldCommit()) {
+			event.setCriterion(String.valueOf(pNode));
+			event.setSliceSize(slicedNodes.size());
+			commit(event, reversedGraph);
+		}
+		final AnalysisMetrics metrics = context.getMetrics();
+		if (metrics != null) {
+			final AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.BACKWARD_SLICE);
+			phase.addNanos(System.nanoTime() - start);
+			phase.setNodes(slicedNodes.size());
+		}
 		return slicedNodes;
 	}
 
 	/**
-	 * initialize the dataGraphDependency for each node of CFG we first check if it
-	 * has variables, if so we get the use variables in this node we get all the
-	 * predecessors of the node filter the predecessors to get only the nodes with a
-	 * definition of the use variable get the reaching definitions from all the
-	 * definitions
-	 * 
-	 * @return dataDependenceGraph the graph representing the data-dependence graph
-	 *         of the control-flow graph
+	 * Computes the backward slices of several criteria of the same method. All
+	 * slices share one program-dependence graph and one reversed adjacency. The
+	 * criteria are processed in order; whenever the traversal of a criterion
+	 * reaches an earlier criterion, the slice of that criterion is merged as a
+	 * whole instead of being traversed again.
+	 *
+	 * @param pCriteria The {@link Node}s to start the backward slices
+	 * @return The backward slice of each criterion, in the order of the criteria
 	 */
-
-	public ProgramGraph computeDataDependenceGraph() {
-
-		final ProgramGraph dataDependenceGraph = new ProgramGraph();
-		for (Node node : controlFlowProgramGraph.getNodes()) {
-			dataDependenceGraph.addNode(node);
-		}
-		
-		for (Node node : controlFlowProgramGraph.getNodes()) {
-			if (node.equals(controlFlowProgramGraph.getEntry()) || node.equals(controlFlowProgramGraph.getExit()))
+	public List<Set<Node>> backwardSlices(final List<Node> pCriteria) {
+		final CompactGraph graph = context.getReversedProgramDependenceGraph().compact();
+		// The complete slice of every criterion handled so far, by node id
+		final BitSet[] slices = new BitSet[graph.size()];
+		final int[] stack = new int[graph.size()];
+		final List<Set<Node>> result = Lists.newArrayListWithCapacity(pCriteria.size());
+		for (Node criterion : pCriteria) {
+			final int start = graph.getId(criterion);
+			if (start == CompactGraph.NO_NODE) {
+				result.add(Sets.newHashSet(criterion));
 				continue;
-			try {
-				Set<Variable> UseVariables = (Set<Variable>) DataFlowAnalysis.usedBy(super.classNode.toString(),
-						super.methodNode, node.getInstruction());
-				if (UseVariables.isEmpty())
-					continue;
-				Set<Node> predecessorsNodes = computePredecessors(node);
-				for (Variable useVar : UseVariables) {
-					Set<Node> reachedDefinitions = Sets.newHashSet();
-					Set<Node> definitionsList = Sets.newHashSet();
-					for (Node pre : predecessorsNodes) {
-						if (pre.equals(controlFlowProgramGraph.getEntry()))
+			}
+			if (slices[start] == null) {
+				final BitSet reached = new BitSet(graph.size());
+				reached.set(start);
+				int top = 0;
+				stack[top++] = start;
+				while (top > 0) {
+					final int node = stack[--top];
+					for (int i = 0; i < graph.getSuccessorCount(node); i++) {
+						final int successor = graph.getSuccessor(node, i);
+						if (reached.get(successor)) {
 							continue;
-						if (!(DataFlowAnalysis
-								.definedBy(super.classNode.toString(), super.methodNode, pre.getInstruction())
-								.isEmpty())
-								&& (DataFlowAnalysis
-										.definedBy(super.classNode.toString(), super.methodNode, pre.getInstruction())
-										.contains(useVar))) {
-							definitionsList.add(pre);
 						}
-					}
-					reachedDefinitions = computeReachingDefinitions(definitionsList, node);
-
-					for (Node reachedDef : reachedDefinitions) {
-						dataDependenceGraph.addEdge(reachedDef, node);
+						if (slices[successor] != null) {
+							reached.or(slices[successor]);
+						} else {
+							reached.set(successor);
+							stack[top++] = successor;
+						}
 					}
 				}
+				slices[start] = reached;
 			}
-
-			catch (AnalyzerException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
+			result.add(graph.asNodeSet((BitSet) slices[start].clone()));
 		}
+		return result;
+	}
 
-		return dataDependenceGraph;
+	/**
+	 * Computes the backward slice of every store instruction of the method: local
+	 * variable stores and increments, array stores and field writes.
+	 *
+	 * @return The backward slice of each store instruction, keyed by the
+	 *         instruction's node
+	 * @see #allBackwardSlices(Predicate)
+	 */
+	public Map<Node, Set<Node>> storeSlices() {
+		return allBackwardSlices(node -> isStore(node.getInstruction()));
 	}
 
 	/**
-	 * Compute the set of reaching definitions of a variable used in a node
-	 * 
-	 * @param definitionsList Set of all definition of a use variable
-	 * @param node            The node contains the use variable
-	 * @return reachedDefinitions A set of nodes of reaching definitions
+	 * Computes the backward slices of all nodes of the control-flow graph that
+	 * match a predicate in a single pass. The reversed program-dependence graph is
+	 * condensed into its strongly connected components; as all nodes of a
+	 * component share one slice, the slice of each component is computed once, in
+	 * topological order, from the slices of the components it depends on.
+	 *
+	 * @param pCriterion Selects the nodes whose slices are computed
+	 * @return The backward slice of each selected node, in the iteration order of
+	 *         the control-flow graph
 	 */
+	public Map<Node, Set<Node>> allBackwardSlices(final Predicate<Node> pCriterion) {
+		final CompactGraph graph = context.getReversedProgramDependenceGraph().compact();
+		// Only the condensation is needed, not the reachability closure between components
+		final StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
 
-	private Set<Node> computeReachingDefinitions(Set<Node> definitionsList, Node node) {
-
-		Set<Node> reachedDefinitions = Sets.newHashSet();
-		if (definitionsList.size() == 1) {
-			reachedDefinitions.add(definitionsList.iterator().next());
-		} else {
-			for (Node def1 : definitionsList) {
-				for (Node def2 : definitionsList) {
-					if (def1.equals(def2) || containsTransitiveSuccessors(def1, def2, node)) {
-						continue;
-					} else {
-						reachedDefinitions.add(def1);
-					}
-				}
+		// Components are numbered such that every dependence has a smaller number
+		final BitSet[] componentSlices = new BitSet[components.getComponentCount()];
+		for (int component = 0; component < componentSlices.length; component++) {
+			final BitSet slice = new BitSet(graph.size());
+			for (int i = 0; i < components.getMemberCount(component); i++) {
+				slice.set(components.getMember(component, i));
+			}
+			for (int i = 0; i < components.getComponentSuccessorCount(component); i++) {
+				slice.or(componentSlices[components.getComponentSuccessor(component, i)]);
 			}
+			componentSlices[component] = slice;
 		}
-		return reachedDefinitions;
+
+		final Map<Node, Set<Node>> slices = Maps.newLinkedHashMap();
+		for (Node node : controlFlowProgramGraph.getNodes()) {
+			if (!pCriterion.test(node)) {
+				continue;
+			}
+			final int id = graph.getId(node);
+			if (id == CompactGraph.NO_NODE) {
+				slices.put(node, Sets.newHashSet(node));
+			} else {
+				slices.put(node, graph.asNodeSet((BitSet) componentSlices[components.getComponent(id)].clone()));
+			}
+		}
+		return slices;
+	}
+
+	static boolean isStore(final AbstractInsnNode pInstruction) {
+		if (pInstruction == null) {
+			return false;
+		}
+		final int opcode = pInstruction.getOpcode();
+		return (opcode >= Opcodes.ISTORE && opcode <= Opcodes.ASTORE)
+				|| (opcode >= Opcodes.IASTORE && opcode <= Opcodes.SASTORE)
+				|| opcode == Opcodes.IINC
+				|| opcode == Opcodes.PUTFIELD
+				|| opcode == Opcodes.PUTSTATIC;
 	}
 
 	/**
-	 * Compute the set of all predecessors of a node
+	 * Computes the data-dependence graph of the control-flow graph. A node depends
+	 * on every definition that reaches it for one of the variables it uses; the
+	 * reaching definitions are computed once for the whole method by
+	 * {@link ReachingDefinitions}, on basic blocks if the context asks for it.
 	 * 
-	 * @param node The node to calculate the predecessors for.
-	 * @return predecessorsNodes A set of nodes of all predecessors
+	 * @return dataDependenceGraph the graph representing the data-dependence graph
+	 *         of the control-flow graph
 	 */
 
-	public Set<Node> computePredecessors(Node node) {
-		ProgramGraph reversedGraph = reverseGraph(controlFlowProgramGraph);
-		Set<Node> predecessorsNodes = (Set<Node>) reversedGraph.getTransitiveSuccessors(node);
+	public ProgramGraph computeDataDependenceGraph() {
 
-		return predecessorsNodes;
+		final ProgramGraph dataDependenceGraph = new ProgramGraph();
+		for (Node node : controlFlowProgramGraph.getNodes()) {
+			dataDependenceGraph.addNode(node);
+		}
+
+		final DefUseTable defUseTable;
+		try {
+			defUseTable = context.getDefUseTable();
+		} catch (AnalyzerException e) {
+			e.printStackTrace();
+			return dataDependenceGraph;
+		}
+
+		final ProgramGraph flowGraph = context.usesBasicBlocks() ? context.getBasicBlockGraph()
+				: controlFlowProgramGraph;
+		final ReachingDefinitions reachingDefinitions = new ReachingDefinitions(flowGraph, defUseTable);
+		reachingDefinitions.compute();
+		reachingDefinitions.forEachDependence(dataDependenceGraph::addEdge);
+		if (context.getMetrics() != null) {
+			context.getMetrics().phase(AnalysisMetrics.DATA_DEPENDENCE_GRAPH)
+					.addIterations(reachingDefinitions.getVisits());
+		}
 
+		return dataDependenceGraph;
 	}
 
 	/**
@@ -193,24 +280,4 @@ public class ProgramDependenceGraph extends Analysis {
 		return reversedGraph;
 	}
 
-	/**
-	 * check if there a node between tow nodes
-	 * 
-	 * @param pStartNode  the start node
-	 * @param pFirstNode  the node in between
-	 * @param pSecondNode the end node
-	 * @return true if the first node is in between and false if not
-	 */
-
-	private boolean containsTransitiveSuccessors(final Node pStartNode, final Node pFirstNode, final Node pSecondNode) {
-
-		Collection<Node> transitiveSuccessors = controlFlowProgramGraph.getTransitiveSuccessors(pStartNode);
-		transitiveSuccessors.add(pStartNode);
-		boolean not_loop = false;
-		if (pStartNode.getLineNumber() < pFirstNode.getLineNumber()
-				&& pFirstNode.getLineNumber() < pSecondNode.getLineNumber())
-			not_loop = true;
-		return transitiveSuccessors.contains(pFirstNode) && transitiveSuccessors.contains(pSecondNode) && not_loop;
-	}
-
 }
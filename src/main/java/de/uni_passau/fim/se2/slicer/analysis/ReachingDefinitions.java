@@ -0,0 +1,234 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import br.usp.each.saeg.asm.defuse.Variable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.util.cfg.BasicBlockNode;
+import de.uni_passau.fim.se2.slicer.util.cfg.CompactGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A classic bit-vector reaching-definitions analysis over a control-flow graph.
+ *
+ * <p>Every (statement, variable) definition pair gets a dense index. The analysis computes the
+ * {@code IN} set of each CFG node in a single fixpoint, visiting nodes in reverse postorder, and
+ * then reports for every use the definitions of the used variable that reach it.
+ *
+ * <p>The graph may either be an instruction-level CFG or a basic-block CFG of {@link
+ * BasicBlockNode}s. In the latter case the fixpoint runs on blocks and the dependences are
+ * resolved per instruction by replaying each block once.
+ */
+class ReachingDefinitions {
+
+  private final CompactGraph cfg;
+  private final DefUseTable defUseTable;
+
+  /** The CFG node ids in reverse postorder; unreachable nodes are appended at the end. */
+  private int[] order;
+
+  /** The position of each CFG node id in {@link #order}. */
+  private int[] positions;
+
+  /** The instruction node that performs definition {@code d}. */
+  private final List<Node> definitionNodes = Lists.newArrayList();
+
+  /** The definitions of each instruction node, in the order of its defined variables. */
+  private final Map<Node, int[]> definitionsOfNode = Maps.newHashMap();
+
+  /** All definition indices per variable, used as kill set and as query mask. */
+  private final Map<Variable, BitSet> definitionsByVariable = Maps.newHashMap();
+
+  private BitSet[] gen;
+  private BitSet[] in;
+
+  /** The number of nodes the work list of the fixpoint has evaluated. */
+  private long visits;
+
+  ReachingDefinitions(final ProgramGraph pCFG, final DefUseTable pDefUseTable) {
+    cfg = pCFG.compact();
+    defUseTable = pDefUseTable;
+  }
+
+  /** Runs the fixpoint computation; has to be called before querying the analysis. */
+  void compute() {
+    computeReversePostorder();
+    collectDefinitions();
+
+    final int size = order.length;
+    in = new BitSet[size];
+    final BitSet[] out = new BitSet[size];
+    for (int i = 0; i < size; i++) {
+      in[i] = new BitSet();
+      out[i] = (BitSet) gen[i].clone();
+    }
+
+    // Work list over reverse-postorder indices: always pick the pending node that comes next in
+    // reverse postorder, wrapping around, which needs few passes for reducible graphs.
+    final BitSet pending = new BitSet(size);
+    pending.set(0, size);
+    @Var int cursor = 0;
+    while (!pending.isEmpty()) {
+      cursor = pending.nextSetBit(cursor);
+      if (cursor < 0) {
+        cursor = pending.nextSetBit(0);
+      }
+      final int current = cursor;
+      pending.clear(current);
+      visits++;
+
+      final int node = order[current];
+      final BitSet newIn = new BitSet();
+      for (int p = 0; p < cfg.getPredecessorCount(node); p++) {
+        newIn.or(out[positions[cfg.getPredecessor(node, p)]]);
+      }
+      in[current] = newIn;
+
+      final BitSet newOut = (BitSet) newIn.clone();
+      for (Node instruction : instructionsOf(cfg.getNode(node))) {
+        transfer(instruction, newOut);
+      }
+      if (!newOut.equals(out[current])) {
+        out[current] = newOut;
+        for (int s = 0; s < cfg.getSuccessorCount(node); s++) {
+          pending.set(positions[cfg.getSuccessor(node, s)]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Provides the number of node evaluations the fixpoint of {@link #compute()} needed; a graph
+   * without loops needs exactly one per node.
+   *
+   * @return The number of evaluated nodes
+   */
+  long getVisits() {
+    return visits;
+  }
+
+  /**
+   * Reports every data dependence of the method: for each instruction and each variable it uses,
+   * the consumer receives each instruction whose definition of that variable reaches the use.
+   *
+   * @param pConsumer Receives pairs of defining and using instruction node
+   */
+  void forEachDependence(final BiConsumer<Node, Node> pConsumer) {
+    for (int i = 0; i < order.length; i++) {
+      final BitSet reaching = (BitSet) in[i].clone();
+      for (Node instruction : instructionsOf(cfg.getNode(order[i]))) {
+        for (Variable variable : defUseTable.usedBy(instruction.getInstruction())) {
+          final BitSet definitions = definitionsByVariable.get(variable);
+          if (definitions == null) {
+            continue;
+          }
+          final BitSet reachingUse = (BitSet) reaching.clone();
+          reachingUse.and(definitions);
+          for (int d = reachingUse.nextSetBit(0); d >= 0; d = reachingUse.nextSetBit(d + 1)) {
+            pConsumer.accept(definitionNodes.get(d), instruction);
+          }
+        }
+        transfer(instruction, reaching);
+      }
+    }
+  }
+
+  /** Applies the kill and gen sets of a single instruction to {@code pReaching} in place. */
+  private void transfer(final Node pInstruction, final BitSet pReaching) {
+    final int[] definitions = definitionsOfNode.get(pInstruction);
+    if (definitions == null) {
+      return;
+    }
+    for (Variable variable : defUseTable.definedBy(pInstruction.getInstruction())) {
+      pReaching.andNot(definitionsByVariable.get(variable));
+    }
+    for (int definition : definitions) {
+      pReaching.set(definition);
+    }
+  }
+
+  private void collectDefinitions() {
+    gen = new BitSet[order.length];
+    for (int i = 0; i < order.length; i++) {
+      for (Node instruction : instructionsOf(cfg.getNode(order[i]))) {
+        final List<Variable> variables =
+            ImmutableList.copyOf(defUseTable.definedBy(instruction.getInstruction()));
+        if (variables.isEmpty()) {
+          continue;
+        }
+        final int[] definitions = new int[variables.size()];
+        for (int v = 0; v < definitions.length; v++) {
+          definitions[v] = definitionNodes.size();
+          definitionNodes.add(instruction);
+          definitionsByVariable
+              .computeIfAbsent(variables.get(v), pKey -> new BitSet())
+              .set(definitions[v]);
+        }
+        definitionsOfNode.put(instruction, definitions);
+      }
+    }
+    // The kill sets are only complete once every definition is known
+    for (int i = 0; i < order.length; i++) {
+      gen[i] = new BitSet();
+      for (Node instruction : instructionsOf(cfg.getNode(order[i]))) {
+        transfer(instruction, gen[i]);
+      }
+    }
+  }
+
+  private static List<Node> instructionsOf(final Node pNode) {
+    if (pNode instanceof BasicBlockNode) {
+      return ((BasicBlockNode) pNode).getNodes();
+    }
+    return ImmutableList.of(pNode);
+  }
+
+  private void computeReversePostorder() {
+    final int size = cfg.size();
+    order = new int[size];
+    positions = new int[size];
+    @Var int count = size;
+    final BitSet visited = new BitSet(size);
+    final int entry = cfg.getEntry();
+    if (entry != CompactGraph.NO_NODE) {
+      // Iterative depth-first search; each stack frame keeps the index of its next successor.
+      // Nodes are placed from the back of the array as they finish, giving reverse postorder.
+      final int[] nodeStack = new int[size];
+      final int[] successorStack = new int[size];
+      @Var int depth = 0;
+      visited.set(entry);
+      nodeStack[0] = entry;
+      while (depth >= 0) {
+        final int node = nodeStack[depth];
+        if (successorStack[depth] < cfg.getSuccessorCount(node)) {
+          final int successor = cfg.getSuccessor(node, successorStack[depth]++);
+          if (!visited.get(successor)) {
+            visited.set(successor);
+            depth++;
+            nodeStack[depth] = successor;
+            successorStack[depth] = 0;
+          }
+        } else {
+          order[--count] = node;
+          depth--;
+        }
+      }
+    }
+    // Move the reachable nodes to the front and append the unreachable ones
+    final int reachable = size - count;
+    System.arraycopy(order, count, order, 0, reachable);
+    @Var int next = reachable;
+    for (int node = visited.nextClearBit(0); node < size; node = visited.nextClearBit(node + 1)) {
+      order[next++] = node;
+    }
+    for (int i = 0; i < size; i++) {
+      positions[order[i]] = i;
+    }
+  }
+}
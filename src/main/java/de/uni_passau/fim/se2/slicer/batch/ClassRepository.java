@@ -0,0 +1,215 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.util.cfg.CFGLocalVariableTableVisitor;
+import de.uni_passau.fim.se2.slicer.util.cfg.LocalVariableTable;
+import de.uni_passau.fim.se2.slicer.util.jfr.ClassParsingEvent;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Keeps parsed classes and the analysis contexts of their methods in memory, such that several
+ * slicing requests on the same method share one parse and one analysis.
+ *
+ * <p>Classes are looked up on the class path by name and are not reloaded when their class files
+ * change. Both caches evict their least recently used entries once they are full. The lock of the
+ * repository only guards the caches themselves; parsing and analysing happen outside of it.
+ */
+public class ClassRepository {
+
+  /** The default number of classes kept in memory. */
+  public static final int DEFAULT_MAX_CLASSES = 256;
+
+  /** The default number of method contexts kept in memory. */
+  public static final int DEFAULT_MAX_CONTEXTS = 1024;
+
+  private final AnalysisCache cache;
+  private final Map<String, FutureTask<LoadedClass>> classes;
+  private final Map<String, ContextTask> contexts;
+
+  /**
+   * Creates a repository with the default capacities.
+   *
+   * @param pCache The persistent cache used for contexts that are not in memory, may be {@code
+   *     null}
+   */
+  public ClassRepository(final AnalysisCache pCache) {
+    this(pCache, DEFAULT_MAX_CLASSES, DEFAULT_MAX_CONTEXTS);
+  }
+
+  /**
+   * Creates a repository.
+   *
+   * @param pCache The persistent cache used for contexts that are not in memory, may be {@code
+   *     null}
+   * @param pMaxClasses The number of classes kept in memory
+   * @param pMaxContexts The number of method contexts kept in memory
+   */
+  public ClassRepository(
+      final AnalysisCache pCache, final int pMaxClasses, final int pMaxContexts) {
+    cache = pCache;
+    classes = createLruMap(pMaxClasses);
+    contexts = createLruMap(pMaxContexts);
+  }
+
+  /**
+   * Provides a class from the class path, parsing it on its first request.
+   *
+   * @param pClassName The fully qualified name of the class
+   * @return The parsed class
+   * @throws IOException In case the class cannot be read
+   */
+  public ClassNode getClassNode(final String pClassName) throws IOException {
+    return load(pClassName).classNode;
+  }
+
+  /**
+   * Provides the local-variable tables of the methods of a class from the class path.
+   *
+   * @param pClassName The fully qualified name of the class
+   * @return The local-variable tables, keyed by {@code name: descriptor}
+   * @throws IOException In case the class cannot be read
+   */
+  public Map<String, LocalVariableTable> getLocalVariableTables(final String pClassName)
+      throws IOException {
+    return load(pClassName).localVariableTables;
+  }
+
+  /**
+   * Provides the analysis context of a method, creating it on its first request. The context is
+   * created outside of the repository's lock, such that a long analysis does not hold up requests
+   * for other methods; concurrent requests for the same method wait for the same analysis.
+   *
+   * @param pClassNode The {@link ClassNode} owning the method
+   * @param pMethodNode The {@link MethodNode} of the method that should be analysed
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   * @return The analysis context of the method
+   */
+  public AnalysisContext getContext(
+      final ClassNode pClassNode, final MethodNode pMethodNode, final boolean pBasicBlocks) {
+    final String key =
+        pClassNode.name + '.' + pMethodNode.name + pMethodNode.desc + (pBasicBlocks ? "#b" : "");
+    final ContextTask task;
+    synchronized (this) {
+      final ContextTask known = contexts.get(key);
+      if (known != null && known.methodNode == pMethodNode) {
+        task = known;
+      } else {
+        task =
+            new ContextTask(
+                pMethodNode,
+                () ->
+                    cache == null
+                        ? new AnalysisContext(pClassNode, pMethodNode, pBasicBlocks)
+                        : cache.getContext(pClassNode, pMethodNode, pBasicBlocks));
+        contexts.put(key, task);
+      }
+    }
+    // Whichever requester gets to the task first runs it, the others wait for its result
+    task.run();
+    try {
+      return Uninterruptibles.getUninterruptibly(task);
+    } catch (ExecutionException e) {
+      forget(contexts, key, task);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private LoadedClass load(final String pClassName) throws IOException {
+    final FutureTask<LoadedClass> task;
+    synchronized (this) {
+      final FutureTask<LoadedClass> known = classes.get(pClassName);
+      if (known != null) {
+        task = known;
+      } else {
+        task = new FutureTask<>(() -> parse(pClassName));
+        classes.put(pClassName, task);
+      }
+    }
+    task.run();
+    try {
+      return Uninterruptibles.getUninterruptibly(task);
+    } catch (ExecutionException e) {
+      // A class that cannot be read now may become readable, so failures are not kept
+      forget(classes, pClassName, task);
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static LoadedClass parse(final String pClassName) throws IOException {
+    final ClassParsingEvent event = new ClassParsingEvent();
+    event.begin();
+    final ClassReader classReader = new ClassReader(pClassName);
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    classReader.accept(classNode, 0);
+    final CFGLocalVariableTableVisitor localVariableTableVisitor =
+        new CFGLocalVariableTableVisitor();
+    classReader.accept(localVariableTableVisitor, 0);
+    // ASM indexes the instructions of a method on first access, which is not safe if the method is
+    // then analysed by several threads at once
+    for (MethodNode method : classNode.methods) {
+      if (method.instructions.size() > 0) {
+        method.instructions.get(0);
+      }
+    }
+    if (event.shouldCommit()) {
+      event.setClassName(classNode.name);
+      event.setMethodCount(classNode.methods.size());
+      event.commit();
+    }
+    return new LoadedClass(classNode, localVariableTableVisitor.getLocalVariables());
+  }
+
+  private synchronized <V> void forget(
+      final Map<String, V> pMap, final String pKey, final V pTask) {
+    pMap.remove(pKey, pTask);
+  }
+
+  private static <V> Map<String, V> createLruMap(final int pCapacity) {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, V> pEldest) {
+        return size() > pCapacity;
+      }
+    };
+  }
+
+  private static final class LoadedClass {
+
+    private final ClassNode classNode;
+    private final Map<String, LocalVariableTable> localVariableTables;
+
+    private LoadedClass(
+        final ClassNode pClassNode, final Map<String, LocalVariableTable> pLocalVariableTables) {
+      classNode = pClassNode;
+      localVariableTables = pLocalVariableTables;
+    }
+  }
+
+  /** The creation of an analysis context, together with the method it is created for. */
+  private static final class ContextTask extends FutureTask<AnalysisContext> {
+
+    private final MethodNode methodNode;
+
+    private ContextTask(final MethodNode pMethodNode, final Callable<AnalysisContext> pCallable) {
+      super(pCallable);
+      methodNode = pMethodNode;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import com.google.common.collect.Lists;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.analysis.MappedDependenceGraph;
+import de.uni_passau.fim.se2.slicer.analysis.ProgramDependenceGraph;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Slices all methods of a class concurrently.
+ *
+ * <p>Every method is analysed in its own task with its own {@link AnalysisContext}; the methods
+ * share no analysis state and therefore run independently on the threads of a {@link
+ * ForkJoinPool}. For each method the backward slices of all its store instructions are computed,
+ * see {@link ProgramDependenceGraph#storeSlices()}.
+ */
+public class ClassSlicer {
+
+  private final ForkJoinPool pool;
+  private final boolean basicBlocks;
+  private final AnalysisCache cache;
+
+  /**
+   * Creates a new slicer.
+   *
+   * @param pPool The pool to run the method analyses on
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   */
+  public ClassSlicer(final ForkJoinPool pPool, final boolean pBasicBlocks) {
+    this(pPool, pBasicBlocks, null);
+  }
+
+  /**
+   * Creates a new slicer that takes the graphs of unchanged methods from a cache.
+   *
+   * @param pPool The pool to run the method analyses on
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   * @param pCache The cache of analysis results, may be {@code null}
+   */
+  public ClassSlicer(
+      final ForkJoinPool pPool, final boolean pBasicBlocks, final AnalysisCache pCache) {
+    pool = pPool;
+    basicBlocks = pBasicBlocks;
+    cache = pCache;
+  }
+
+  /**
+   * Slices every method of a class that has code.
+   *
+   * @param pClassNode The class to slice
+   * @return The slices of each method, in the order of the class's methods
+   */
+  public List<MethodSlices> sliceClass(final ClassNode pClassNode) {
+    final List<Callable<MethodSlices>> tasks = Lists.newArrayList();
+    for (MethodNode method : pClassNode.methods) {
+      if (method.instructions.size() > 0) {
+        tasks.add(() -> sliceMethod(pClassNode, method, basicBlocks, cache));
+      }
+    }
+    final List<MethodSlices> results = Lists.newArrayListWithCapacity(tasks.size());
+    for (Future<MethodSlices> future : pool.invokeAll(tasks)) {
+      results.add(getResult(future));
+    }
+    return results;
+  }
+
+  /**
+   * Slices a single method on the calling thread.
+   *
+   * @param pClassNode The class owning the method
+   * @param pMethodNode The method to slice
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   * @param pCache The cache of analysis results, may be {@code null}
+   * @return The slices of the method; failures are recorded instead of thrown
+   */
+  static MethodSlices sliceMethod(
+      final ClassNode pClassNode,
+      final MethodNode pMethodNode,
+      final boolean pBasicBlocks,
+      final AnalysisCache pCache) {
+    try {
+      final AnalysisContext context =
+          pCache == null
+              ? new AnalysisContext(pClassNode, pMethodNode, pBasicBlocks)
+              : pCache.getContext(pClassNode, pMethodNode, pBasicBlocks);
+      if (context.getControlFlowGraph() == null) {
+        return MethodSlices.failure(
+            pClassNode,
+            pMethodNode,
+            new IllegalStateException("Could not extract the control-flow graph"));
+      }
+      return MethodSlices.success(
+          pClassNode, pMethodNode, new ProgramDependenceGraph(context).storeSlices());
+    } catch (RuntimeException e) {
+      return MethodSlices.failure(pClassNode, pMethodNode, e);
+    }
+  }
+
+  /**
+   * Slices a single method on the calling thread from its {@link MappedDependenceGraph} in a cache,
+   * which is written first if the method is not cached yet.
+   *
+   * @param pClassNode The class owning the method
+   * @param pMethodNode The method to slice
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   * @param pCache The cache of analysis results
+   * @return The slices of the method; failures are recorded instead of thrown
+   */
+  static MethodSlices sliceMappedMethod(
+      final ClassNode pClassNode,
+      final MethodNode pMethodNode,
+      final boolean pBasicBlocks,
+      final AnalysisCache pCache) {
+    try {
+      final MappedDependenceGraph graph =
+          pCache.getMappedGraph(pClassNode, pMethodNode, pBasicBlocks);
+      if (graph == null) {
+        return MethodSlices.failure(
+            pClassNode,
+            pMethodNode,
+            new IllegalStateException("Could not extract the control-flow graph"));
+      }
+      return MethodSlices.success(
+          pClassNode, pMethodNode, graph.storeSlices(pMethodNode.instructions));
+    } catch (IOException | RuntimeException e) {
+      return MethodSlices.failure(pClassNode, pMethodNode, e);
+    }
+  }
+
+  static MethodSlices getResult(final Future<MethodSlices> pFuture) {
+    try {
+      return pFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,408 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import com.google.common.collect.Lists;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.analysis.MappedDependenceGraph;
+import de.uni_passau.fim.se2.slicer.util.jfr.ClassParsingEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Slices all methods of all classes of a jar file or a class directory.
+ *
+ * <p>A first pass reads every class once and only counts the instructions of each of its methods,
+ * without building a tree, such that the methods of the whole corpus can be ordered by their size.
+ * The method analyses are then submitted to a work-stealing {@link ForkJoinPool}, largest first,
+ * which keeps a few huge methods from being started last and stretching the run. The bytes of a
+ * class are shared by the analyses of its methods until the last of them is done, and each
+ * analysis parses only the code of its own method, so the parsed corpus is never held in memory as
+ * a whole; only the methods currently being sliced are.
+ *
+ * <p>With a cache, the program-dependence graph of every method is kept as a {@link
+ * MappedDependenceGraph} file in the cache directory, and the slices of unchanged methods are
+ * computed straight from the mapped files.
+ */
+public class CorpusSlicer {
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private final ForkJoinPool pool;
+  private final boolean basicBlocks;
+  private final AnalysisCache cache;
+
+  /**
+   * Creates a new slicer.
+   *
+   * @param pPool The pool to run the method analyses on
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   */
+  public CorpusSlicer(final ForkJoinPool pPool, final boolean pBasicBlocks) {
+    this(pPool, pBasicBlocks, null);
+  }
+
+  /**
+   * Creates a new slicer that slices unchanged methods from their mapped graphs in a cache.
+   *
+   * @param pPool The pool to run the method analyses on
+   * @param pBasicBlocks Whether dependences should be computed on basic blocks
+   * @param pCache The cache of analysis results, may be {@code null}
+   */
+  public CorpusSlicer(
+      final ForkJoinPool pPool, final boolean pBasicBlocks, final AnalysisCache pCache) {
+    pool = pPool;
+    basicBlocks = pBasicBlocks;
+    cache = pCache;
+  }
+
+  /**
+   * Slices every method with code of every class in a corpus.
+   *
+   * <p>The {@link ClassNode} of a result holds the header of the class and only the sliced method.
+   *
+   * @param pCorpus A jar file or a directory containing class files
+   * @param pConsumer Receives the slices of each method as soon as they are computed; it is called
+   *     concurrently from the pool's threads
+   * @return The number of analysed methods
+   * @throws IOException In case the corpus cannot be read
+   */
+  public int sliceCorpus(final Path pCorpus, final Consumer<MethodSlices> pConsumer)
+      throws IOException {
+    if (Files.isDirectory(pCorpus)) {
+      final List<ClassFile> classFiles = Lists.newArrayList();
+      try (Stream<Path> paths = Files.walk(pCorpus)) {
+        paths
+            .filter(pPath -> pPath.getFileName().toString().endsWith(CLASS_SUFFIX))
+            .filter(Files::isRegularFile)
+            .sorted()
+            .forEach(pPath -> classFiles.add(() -> Files.readAllBytes(pPath)));
+      }
+      return sliceClassFiles(classFiles, pConsumer);
+    }
+    // The jar stays open until all analyses are done; reading its entries is thread safe
+    try (JarFile jarFile = new JarFile(pCorpus.toFile())) {
+      final List<ClassFile> classFiles = Lists.newArrayList();
+      final Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        final JarEntry entry = entries.nextElement();
+        if (entry.isDirectory() || !entry.getName().endsWith(CLASS_SUFFIX)) {
+          continue;
+        }
+        classFiles.add(
+            () -> {
+              try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                return inputStream.readAllBytes();
+              }
+            });
+      }
+      return sliceClassFiles(classFiles, pConsumer);
+    }
+  }
+
+  private int sliceClassFiles(
+      final List<ClassFile> pClassFiles, final Consumer<MethodSlices> pConsumer)
+      throws IOException {
+    final List<MethodTask> tasks = Lists.newArrayList();
+    for (ClassFile classFile : pClassFiles) {
+      addMethods(classFile, tasks);
+    }
+    tasks.sort(Comparator.comparingInt((MethodTask pTask) -> pTask.size).reversed());
+
+    // Only a countdown is kept per task, such that finished analyses can be collected right away
+    final CountDownLatch pending = new CountDownLatch(tasks.size());
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    for (MethodTask task : tasks) {
+      pool.execute(
+          () -> {
+            try {
+              pConsumer.accept(task.slice(basicBlocks, cache));
+            } catch (RuntimeException e) {
+              failure.compareAndSet(null, e);
+            } finally {
+              pending.countDown();
+            }
+          });
+    }
+    try {
+      pending.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return tasks.size();
+  }
+
+  /**
+   * Reads a class file and records a task for each of its methods with code. Only the instructions
+   * are counted; no tree is built.
+   *
+   * @param pClassFile The class file
+   * @param pTasks The list to add the tasks to
+   * @throws IOException In case the class file cannot be read
+   */
+  private static void addMethods(final ClassFile pClassFile, final List<MethodTask> pTasks)
+      throws IOException {
+    final ClassBytes classBytes = new ClassBytes(pClassFile.read());
+    final List<MethodTask> classTasks = Lists.newArrayList();
+    final ClassParsingEvent event = new ClassParsingEvent();
+    event.begin();
+    final ClassReader classReader = new ClassReader(classBytes.get());
+    final String owner = classReader.getClassName();
+    // Module and package descriptors carry no code
+    if ((classReader.getAccess() & Opcodes.ACC_MODULE) == 0) {
+      final ClassVisitor sizer =
+          new ClassVisitor(Opcodes.ASM7) {
+            @Override
+            public MethodVisitor visitMethod(
+                final int pAccess,
+                final String pName,
+                final String pDescriptor,
+                final String pSignature,
+                final String[] pExceptions) {
+              return new InstructionCounter() {
+                @Override
+                public void visitEnd() {
+                  if (getCount() > 0) {
+                    classTasks.add(
+                        new MethodTask(classBytes, owner, pAccess, pName, pDescriptor, getCount()));
+                  }
+                }
+              };
+            }
+          };
+      classReader.accept(sizer, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    }
+    if (event.shouldCommit()) {
+      event.setClassName(owner);
+      event.setMethodCount(classTasks.size());
+      event.commit();
+    }
+    classBytes.setPendingTasks(classTasks.size());
+    pTasks.addAll(classTasks);
+  }
+
+  /** Reads the bytes of a class file of the corpus; may be called from several threads. */
+  @FunctionalInterface
+  private interface ClassFile {
+
+    byte[] read() throws IOException;
+  }
+
+  /**
+   * The bytes of a class file, shared by the analyses of its methods and dropped once the last of
+   * them is done.
+   */
+  private static final class ClassBytes {
+
+    private volatile byte[] bytes;
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+
+    ClassBytes(final byte[] pBytes) {
+      bytes = pBytes;
+    }
+
+    byte[] get() {
+      return bytes;
+    }
+
+    void setPendingTasks(final int pPendingTasks) {
+      pendingTasks.set(pPendingTasks);
+    }
+
+    void release() {
+      if (pendingTasks.decrementAndGet() == 0) {
+        bytes = null;
+      }
+    }
+  }
+
+  /** Counts the instructions of a method's code, leaving out labels and debug information. */
+  private static class InstructionCounter extends MethodVisitor {
+
+    private int count;
+
+    InstructionCounter() {
+      super(Opcodes.ASM7);
+    }
+
+    int getCount() {
+      return count;
+    }
+
+    @Override
+    public void visitInsn(final int pOpcode) {
+      count++;
+    }
+
+    @Override
+    public void visitIntInsn(final int pOpcode, final int pOperand) {
+      count++;
+    }
+
+    @Override
+    public void visitVarInsn(final int pOpcode, final int pVar) {
+      count++;
+    }
+
+    @Override
+    public void visitTypeInsn(final int pOpcode, final String pType) {
+      count++;
+    }
+
+    @Override
+    public void visitFieldInsn(
+        final int pOpcode, final String pOwner, final String pName, final String pDescriptor) {
+      count++;
+    }
+
+    @Override
+    public void visitMethodInsn(
+        final int pOpcode,
+        final String pOwner,
+        final String pName,
+        final String pDescriptor,
+        final boolean pIsInterface) {
+      count++;
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(
+        final String pName,
+        final String pDescriptor,
+        final Handle pBootstrapMethodHandle,
+        final Object... pBootstrapMethodArguments) {
+      count++;
+    }
+
+    @Override
+    public void visitJumpInsn(final int pOpcode, final Label pLabel) {
+      count++;
+    }
+
+    @Override
+    public void visitLdcInsn(final Object pValue) {
+      count++;
+    }
+
+    @Override
+    public void visitIincInsn(final int pVar, final int pIncrement) {
+      count++;
+    }
+
+    @Override
+    public void visitTableSwitchInsn(
+        final int pMin, final int pMax, final Label pDefault, final Label... pLabels) {
+      count++;
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(
+        final Label pDefault, final int[] pKeys, final Label[] pLabels) {
+      count++;
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(final String pDescriptor, final int pDimensions) {
+      count++;
+    }
+  }
+
+  /** A single method analysis, ordered by the size of its method. */
+  private static final class MethodTask {
+
+    private final ClassBytes classBytes;
+    private final String owner;
+    private final int methodAccess;
+    private final String methodName;
+    private final String methodDescriptor;
+    private final int size;
+
+    MethodTask(
+        final ClassBytes pClassBytes,
+        final String pOwner,
+        final int pAccess,
+        final String pName,
+        final String pDescriptor,
+        final int pSize) {
+      classBytes = pClassBytes;
+      owner = pOwner;
+      methodAccess = pAccess;
+      methodName = pName;
+      methodDescriptor = pDescriptor;
+      size = pSize;
+    }
+
+    /**
+     * Parses the method from the bytes of its class and slices it.
+     *
+     * @param pBasicBlocks Whether dependences should be computed on basic blocks
+     * @param pCache The cache of analysis results, may be {@code null}
+     * @return The slices of the method; failures are recorded instead of thrown
+     */
+    MethodSlices slice(final boolean pBasicBlocks, final AnalysisCache pCache) {
+      final ClassNode classNode =
+          new ClassNode(Opcodes.ASM7) {
+            @Override
+            public MethodVisitor visitMethod(
+                final int pAccess,
+                final String pName,
+                final String pDescriptor,
+                final String pSignature,
+                final String[] pExceptions) {
+              // The code of all other methods is skipped by the reader
+              if (pName.equals(methodName) && pDescriptor.equals(methodDescriptor)) {
+                return super.visitMethod(pAccess, pName, pDescriptor, pSignature, pExceptions);
+              }
+              return null;
+            }
+          };
+      final ClassParsingEvent event = new ClassParsingEvent();
+      event.begin();
+      try {
+        new ClassReader(classBytes.get()).accept(classNode, 0);
+      } finally {
+        classBytes.release();
+      }
+      if (event.shouldCommit()) {
+        event.setClassName(owner);
+        event.setMethodCount(classNode.methods.size());
+        event.commit();
+      }
+      if (classNode.methods.isEmpty()) {
+        return MethodSlices.failure(
+            classNode, placeholder(), new IllegalStateException("Method vanished from class file"));
+      }
+      final MethodNode methodNode = classNode.methods.get(0);
+      return pCache == null
+          ? ClassSlicer.sliceMethod(classNode, methodNode, pBasicBlocks, null)
+          : ClassSlicer.sliceMappedMethod(classNode, methodNode, pBasicBlocks, pCache);
+    }
+
+    private MethodNode placeholder() {
+      return new MethodNode(Opcodes.ASM7, methodAccess, methodName, methodDescriptor, null, null);
+    }
+  }
+}
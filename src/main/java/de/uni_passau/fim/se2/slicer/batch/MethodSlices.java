@@ -0,0 +1,74 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import com.google.common.collect.ImmutableMap;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/** Holds the slices computed for a single method, or the reason why none could be computed. */
+public class MethodSlices {
+
+  private final ClassNode classNode;
+  private final MethodNode methodNode;
+  private final Map<Node, Set<Node>> slices;
+  private final Exception error;
+
+  private MethodSlices(
+      final ClassNode pClassNode,
+      final MethodNode pMethodNode,
+      final Map<Node, Set<Node>> pSlices,
+      final Exception pError) {
+    classNode = pClassNode;
+    methodNode = pMethodNode;
+    slices = pSlices;
+    error = pError;
+  }
+
+  static MethodSlices success(
+      final ClassNode pClassNode, final MethodNode pMethodNode, final Map<Node, Set<Node>> pSlices) {
+    return new MethodSlices(pClassNode, pMethodNode, pSlices, null);
+  }
+
+  static MethodSlices failure(
+      final ClassNode pClassNode, final MethodNode pMethodNode, final Exception pError) {
+    return new MethodSlices(pClassNode, pMethodNode, ImmutableMap.of(), pError);
+  }
+
+  public ClassNode getClassNode() {
+    return classNode;
+  }
+
+  public MethodNode getMethodNode() {
+    return methodNode;
+  }
+
+  /**
+   * Provides the slices of the method.
+   *
+   * @return The backward slice of each criterion, keyed by the criterion's node; empty if the
+   *     method could not be analysed
+   */
+  public Map<Node, Set<Node>> getSlices() {
+    return slices;
+  }
+
+  /**
+   * Provides the error that prevented the analysis of the method.
+   *
+   * @return The error, or {@code null} if the method was analysed successfully
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  /**
+   * Provides the name and descriptor of the method, in the format of the command line.
+   *
+   * @return The method name and descriptor separated by a colon
+   */
+  public String getMethodName() {
+    return methodNode.name + ":" + methodNode.desc;
+  }
+}
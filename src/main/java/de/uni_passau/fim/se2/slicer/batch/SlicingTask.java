@@ -0,0 +1,119 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A named slicing criterion of a task file. Task files have the format of {@code
+ * evalscripts/tasks.json}: an object whose {@code tasks} array holds objects with the keys {@code
+ * name}, {@code package}, {@code class}, {@code method} ({@code name:descriptor}), {@code line} and
+ * {@code variable}.
+ */
+public class SlicingTask {
+
+  private String name;
+
+  @SerializedName("package")
+  private String packageName;
+
+  @SerializedName("class")
+  private String className;
+
+  private String method;
+  private int line;
+  private String variable;
+
+  /** Creates an empty task, to be filled by {@link Gson}. */
+  private SlicingTask() {}
+
+  /**
+   * Creates a task.
+   *
+   * @param pName The name of the task, which names its result file
+   * @param pPackageName The package of the class
+   * @param pClassName The simple name of the class
+   * @param pMethod The method as {@code name:descriptor}
+   * @param pLine The line number of the criterion
+   * @param pVariable The variable of the criterion
+   */
+  public SlicingTask(
+      final String pName,
+      final String pPackageName,
+      final String pClassName,
+      final String pMethod,
+      final int pLine,
+      final String pVariable) {
+    name = pName;
+    packageName = pPackageName;
+    className = pClassName;
+    method = pMethod;
+    line = pLine;
+    variable = pVariable;
+  }
+
+  /**
+   * Reads the tasks of a task file.
+   *
+   * @param pTaskFile The task file
+   * @return The tasks, in the order of the file
+   * @throws IOException In case the file cannot be read or is malformed
+   */
+  public static List<SlicingTask> readTasks(final Path pTaskFile) throws IOException {
+    final TaskFile taskFile;
+    try (Reader reader = Files.newBufferedReader(pTaskFile, StandardCharsets.UTF_8)) {
+      taskFile = new Gson().fromJson(reader, TaskFile.class);
+    } catch (JsonParseException e) {
+      throw new IOException("Malformed task file " + pTaskFile + ": " + e.getMessage(), e);
+    }
+    if (taskFile == null || taskFile.tasks == null) {
+      throw new IOException("Task file " + pTaskFile + " holds no tasks");
+    }
+    for (SlicingTask task : taskFile.tasks) {
+      if (task.name == null
+          || task.className == null
+          || task.method == null
+          || task.variable == null) {
+        throw new IOException("Incomplete task in " + pTaskFile + ": " + task.name);
+      }
+    }
+    return ImmutableList.copyOf(taskFile.tasks);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Provides the fully qualified name of the class, as expected by {@link
+   * org.objectweb.asm.ClassReader}.
+   *
+   * @return The qualified class name
+   */
+  public String getQualifiedClassName() {
+    return packageName == null || packageName.isEmpty() ? className : packageName + '.' + className;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public int getLine() {
+    return line;
+  }
+
+  public String getVariable() {
+    return variable;
+  }
+
+  private static final class TaskFile {
+    private List<SlicingTask> tasks;
+  }
+}
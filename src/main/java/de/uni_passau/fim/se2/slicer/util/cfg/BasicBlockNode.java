@@ -0,0 +1,87 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+/**
+ * Represents a basic block in a {@link ProgramGraph} - a maximal run of instructions that is
+ * always executed from its first to its last instruction.
+ *
+ * <p>A block keeps the instruction-level {@link Node}s it was built from, in execution order, such
+ * that analysis results computed on blocks can be expanded to single instructions again.
+ */
+public class BasicBlockNode extends Node {
+
+  private final List<Node> nodes;
+
+  /**
+   * Creates a new block node.
+   *
+   * @param pNodes The instruction nodes of the block in execution order, must not be empty
+   */
+  BasicBlockNode(final List<Node> pNodes) {
+    super("BLOCK " + pNodes.get(0).getID());
+    nodes = ImmutableList.copyOf(pNodes);
+  }
+
+  /**
+   * Provides the instruction nodes of this block in execution order.
+   *
+   * @return The instruction nodes of this block
+   */
+  public List<Node> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Provides the first instruction node of this block, its leader.
+   *
+   * @return The first instruction node
+   */
+  public Node getFirst() {
+    return nodes.get(0);
+  }
+
+  /**
+   * Provides the last instruction node of this block; this is the only node of a block that may
+   * have more than one successor.
+   *
+   * @return The last instruction node
+   */
+  public Node getLast() {
+    return nodes.get(nodes.size() - 1);
+  }
+
+  /**
+   * Provides the instruction of the block's leader.
+   *
+   * @return The first instruction of the block
+   */
+  @Override
+  public AbstractInsnNode getInstruction() {
+    return getFirst().getInstruction();
+  }
+
+  /**
+   * Provides the line number of the block's leader.
+   *
+   * @return The line number of the first instruction of the block
+   */
+  @Override
+  public int getLineNumber() {
+    return getFirst().getLineNumber();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    final String first = getFirst().toString();
+    final String last = getLast().toString();
+    return "\"BLOCK["
+        + first.substring(1, first.length() - 1)
+        + " .. "
+        + last.substring(1, last.length() - 1)
+        + "]\"";
+  }
+}
@@ -1,9 +1,14 @@
 package de.uni_passau.fim.se2.slicer.util.cfg;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.util.jfr.CFGExtractionEvent;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.LineNumberNode;
@@ -17,7 +22,8 @@ import org.objectweb.asm.tree.analysis.BasicValue;
 public class CFGExtractor {
 
   /**
-   * Builds the control flow graph for a {@link MethodNode}.
+   * Builds the control flow graph for a {@link MethodNode}. The extraction is reported as a {@link
+   * CFGExtractionEvent} to the Java Flight Recorder.
    *
    * @param pOwningClass The name of the owning class
    * @param pMethodNode The {@link MethodNode} to build a CFG for
@@ -26,25 +32,142 @@ public class CFGExtractor {
    */
   public static ProgramGraph getCFG(final String pOwningClass, final MethodNode pMethodNode)
       throws AnalyzerException {
+    final CFGExtractionEvent event = new CFGExtractionEvent();
+    event.begin();
     final ProgramGraph programGraph = buildGraph(pOwningClass, pMethodNode);
     final Node entry = new Node("Entry");
     final Node exit = new Node("Exit");
     programGraph.addNode(entry);
     programGraph.addNode(exit);
+    // Decide on all edges before adding any, such that the graph is not re-indexed per edge
+    final List<Node> sinks = Lists.newArrayList();
+    final List<Node> sources = Lists.newArrayList();
     for (Node node : programGraph.getNodes()) {
       if (node.toString().equals("\"Exit\"") || node.toString().equals("\"Entry\"")) {
         continue;
       }
       if (programGraph.getSuccessors(node).isEmpty()) {
-        programGraph.addEdge(node, exit);
+        sinks.add(node);
       }
       if (programGraph.getPredecessors(node).isEmpty()) {
-        programGraph.addEdge(entry, node);
+        sources.add(node);
       }
     }
+    for (Node node : sinks) {
+      programGraph.addEdge(node, exit);
+    }
+    for (Node node : sources) {
+      programGraph.addEdge(entry, node);
+    }
+    if (event.shouldCommit()) {
+      event.setMethod(pOwningClass, pMethodNode);
+      event.setGraph(programGraph);
+      event.commit();
+    }
     return programGraph;
   }
 
+  /**
+   * Builds the basic-block control flow graph for a {@link MethodNode}.
+   *
+   * @param pOwningClass The name of the owning class
+   * @param pMethodNode The {@link MethodNode} to build a CFG for
+   * @return A {@link ProgramGraph} of {@link BasicBlockNode}s representing the method
+   * @throws AnalyzerException In case of errors during analysis
+   * @see #getBasicBlockCFG(ProgramGraph)
+   */
+  public static ProgramGraph getBasicBlockCFG(
+      final String pOwningClass, final MethodNode pMethodNode) throws AnalyzerException {
+    return getBasicBlockCFG(getCFG(pOwningClass, pMethodNode));
+  }
+
+  /**
+   * Collapses an instruction-level control flow graph into a graph of basic blocks.
+   *
+   * <p>Every straight-line run of nodes, where each node but the last has exactly one successor
+   * and each node but the first has exactly one predecessor, becomes one {@link BasicBlockNode}.
+   * The entry and exit nodes of {@code pCFG} are kept as they are.
+   *
+   * @param pCFG An instruction-level control flow graph as built by {@link #getCFG}
+   * @return A {@link ProgramGraph} whose nodes are the blocks, entry and exit of {@code pCFG}
+   */
+  public static ProgramGraph getBasicBlockCFG(final ProgramGraph pCFG) {
+    final Node entry = pCFG.getEntry();
+    final Node exit = pCFG.getExit();
+    final Map<Node, Node> blockOf = Maps.newHashMap();
+    final ProgramGraph blockGraph = new ProgramGraph();
+
+    final Set<Node> leaders = Sets.newLinkedHashSet();
+    for (Node node : pCFG.getNodes()) {
+      if (node.equals(entry) || node.equals(exit) || isLeader(pCFG, node, entry)) {
+        leaders.add(node);
+      }
+    }
+    for (Node leader : leaders) {
+      addBlock(pCFG, leader, leaders, entry, exit, blockOf, blockGraph);
+    }
+    // Cycles without any leader can only be unreachable from the entry; start a block anywhere
+    for (Node node : pCFG.getNodes()) {
+      if (!blockOf.containsKey(node)) {
+        leaders.add(node);
+        addBlock(pCFG, node, leaders, entry, exit, blockOf, blockGraph);
+      }
+    }
+
+    for (Node block : blockGraph.getNodes()) {
+      final Node last = block instanceof BasicBlockNode ? ((BasicBlockNode) block).getLast() : block;
+      for (Node successor : pCFG.getSuccessors(last)) {
+        blockGraph.addEdge(block, blockOf.get(successor));
+      }
+    }
+    return blockGraph;
+  }
+
+  private static boolean isLeader(final ProgramGraph pCFG, final Node pNode, final Node pEntry) {
+    final Set<Node> predecessors = pCFG.getPredecessors(pNode);
+    if (predecessors.size() != 1) {
+      return true;
+    }
+    final Node predecessor = predecessors.iterator().next();
+    return predecessor.equals(pEntry)
+        || predecessor.equals(pNode)
+        || pCFG.getSuccessors(predecessor).size() != 1;
+  }
+
+  private static void addBlock(
+      final ProgramGraph pCFG,
+      final Node pLeader,
+      final Set<Node> pLeaders,
+      final Node pEntry,
+      final Node pExit,
+      final Map<Node, Node> pBlockOf,
+      final ProgramGraph pBlockGraph) {
+    if (pLeader.equals(pEntry) || pLeader.equals(pExit)) {
+      pBlockOf.put(pLeader, pLeader);
+      pBlockGraph.addNode(pLeader);
+      return;
+    }
+    final List<Node> nodes = Lists.newArrayList();
+    @Var Node current = pLeader;
+    while (true) {
+      nodes.add(current);
+      final Set<Node> successors = pCFG.getSuccessors(current);
+      if (successors.size() != 1) {
+        break;
+      }
+      final Node successor = successors.iterator().next();
+      if (pLeaders.contains(successor) || successor.equals(pExit)) {
+        break;
+      }
+      current = successor;
+    }
+    final BasicBlockNode block = new BasicBlockNode(nodes);
+    for (Node node : nodes) {
+      pBlockOf.put(node, block);
+    }
+    pBlockGraph.addNode(block);
+  }
+
   private static ProgramGraph buildGraph(final String pOwningClass, final MethodNode pMethodNode)
       throws AnalyzerException {
     final InsnList instructions = pMethodNode.instructions;
@@ -53,6 +176,9 @@ public class CFGExtractor {
     final Analyzer<BasicValue> analyzer =
         new Analyzer<BasicValue>(new BasicInterpreter()) {
 
+          /** Node indices are dense per method, in the order the instructions are reached. */
+          private int nextId = 1;
+
           protected void newControlFlowEdge(final int pSourceIndex, final int pDestinationIndex) {
             final AbstractInsnNode from = instructions.get(pSourceIndex);
             final AbstractInsnNode to = instructions.get(pDestinationIndex);
@@ -62,14 +188,14 @@ public class CFGExtractor {
 
             @Var Node srcNode = nodes.get(from);
             if (srcNode == null) {
-              srcNode = new Node(from, fromLineNumber);
+              srcNode = new Node(from, fromLineNumber, nextId++);
               nodes.put(from, srcNode);
               programGraph.addNode(srcNode);
             }
 
             @Var Node tgtNode = nodes.get(to);
             if (tgtNode == null) {
-              tgtNode = new Node(to, toLineNumber);
+              tgtNode = new Node(to, toLineNumber, nextId++);
               nodes.put(to, tgtNode);
               programGraph.addNode(tgtNode);
             }
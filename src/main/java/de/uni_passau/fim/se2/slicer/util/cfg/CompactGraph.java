@@ -0,0 +1,310 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.common.collect.Iterators;
+import com.google.errorprone.annotations.Var;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of a {@link ProgramGraph} in compressed-sparse-row form.
+ *
+ * <p>Every node gets a dense id in {@code [0, size())}, following the iteration order of {@link
+ * ProgramGraph#getNodes()}. Successors and predecessors of all nodes are stored in two flat arrays
+ * each, together with an offset array per direction, without duplicates. Entry and exit are
+ * determined once when the snapshot is built.
+ */
+public final class CompactGraph {
+
+  /** Marks the absence of a node, e.g., for a graph without entry. */
+  public static final int NO_NODE = -1;
+
+  private final Node[] nodes;
+  private final Map<Node, Integer> ids;
+
+  private final int[] successorOffsets;
+  private final int[] successors;
+  private final int[] predecessorOffsets;
+  private final int[] predecessors;
+
+  private final int entry;
+  private final int exit;
+
+  /**
+   * Creates a snapshot from an edge list.
+   *
+   * @param pNodes The nodes of the graph; their position becomes their id
+   * @param pIds The id of every node, i.e., its position in {@code pNodes}; the snapshot takes
+   *     ownership of the map
+   * @param pSources The source id of every edge
+   * @param pTargets The target id of every edge
+   * @param pEdgeCount The number of valid entries in {@code pSources} and {@code pTargets}
+   */
+  CompactGraph(
+      final Node[] pNodes,
+      final Map<Node, Integer> pIds,
+      final int[] pSources,
+      final int[] pTargets,
+      final int pEdgeCount) {
+    nodes = pNodes;
+    ids = pIds;
+
+    successorOffsets = new int[pNodes.length + 1];
+    predecessorOffsets = new int[pNodes.length + 1];
+    successors = buildRows(pSources, pTargets, pEdgeCount, successorOffsets);
+    predecessors = buildRows(pTargets, pSources, pEdgeCount, predecessorOffsets);
+
+    entry = findFirstWithoutNeighbours(predecessorOffsets);
+    exit = findFirstWithoutNeighbours(successorOffsets);
+  }
+
+  /**
+   * Provides the number of nodes.
+   *
+   * @return The number of nodes
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * Provides the node with the given id.
+   *
+   * @param pId The dense node id
+   * @return The node
+   */
+  public Node getNode(final int pId) {
+    return nodes[pId];
+  }
+
+  /**
+   * Provides an unmodifiable set view of all nodes, in the order of their ids.
+   *
+   * @return The nodes of the graph
+   */
+  public Set<Node> getNodes() {
+    return new NodeView();
+  }
+
+  /**
+   * Provides the dense id of a node.
+   *
+   * @param pNode The node
+   * @return The id of the node, or {@link #NO_NODE} if it is not part of the graph
+   */
+  public int getId(final Node pNode) {
+    final Integer id = ids.get(pNode);
+    return id == null ? NO_NODE : id;
+  }
+
+  /**
+   * Provides the id of the first node without predecessors.
+   *
+   * @return The entry id, or {@link #NO_NODE} if every node has a predecessor
+   */
+  public int getEntry() {
+    return entry;
+  }
+
+  /**
+   * Provides the id of the first node without successors.
+   *
+   * @return The exit id, or {@link #NO_NODE} if every node has a successor
+   */
+  public int getExit() {
+    return exit;
+  }
+
+  public int getSuccessorCount(final int pId) {
+    return successorOffsets[pId + 1] - successorOffsets[pId];
+  }
+
+  /**
+   * Provides the {@code pIndex}-th successor of a node.
+   *
+   * @param pId The node id
+   * @param pIndex A value in {@code [0, getSuccessorCount(pId))}
+   * @return The id of the successor
+   */
+  public int getSuccessor(final int pId, final int pIndex) {
+    return successors[successorOffsets[pId] + pIndex];
+  }
+
+  public int getPredecessorCount(final int pId) {
+    return predecessorOffsets[pId + 1] - predecessorOffsets[pId];
+  }
+
+  /**
+   * Provides the {@code pIndex}-th predecessor of a node.
+   *
+   * @param pId The node id
+   * @param pIndex A value in {@code [0, getPredecessorCount(pId))}
+   * @return The id of the predecessor
+   */
+  public int getPredecessor(final int pId, final int pIndex) {
+    return predecessors[predecessorOffsets[pId] + pIndex];
+  }
+
+  /**
+   * Provides the number of distinct edges.
+   *
+   * @return The number of edges
+   */
+  public int getEdgeCount() {
+    return successors.length;
+  }
+
+  /**
+   * Provides an unmodifiable set view of the successors of a node.
+   *
+   * @param pId The node id
+   * @return The successors of the node
+   */
+  public Set<Node> successorsOf(final int pId) {
+    return new RowView(successors, successorOffsets[pId], successorOffsets[pId + 1]);
+  }
+
+  /**
+   * Provides an unmodifiable set view of the predecessors of a node.
+   *
+   * @param pId The node id
+   * @return The predecessors of the node
+   */
+  public Set<Node> predecessorsOf(final int pId) {
+    return new RowView(predecessors, predecessorOffsets[pId], predecessorOffsets[pId + 1]);
+  }
+
+  /**
+   * Provides a modifiable set of nodes that is backed by a bit set over node ids of this graph.
+   *
+   * @param pIds The ids of the nodes in the set; the set takes ownership of it
+   * @return A set view of the given node ids
+   */
+  public Set<Node> asNodeSet(final BitSet pIds) {
+    return new NodeBitSet(this, pIds);
+  }
+
+  private int findFirstWithoutNeighbours(final int[] pOffsets) {
+    for (int i = 0; i < nodes.length; i++) {
+      if (pOffsets[i] == pOffsets[i + 1]) {
+        return i;
+      }
+    }
+    return NO_NODE;
+  }
+
+  /**
+   * Sorts the edges into rows by their {@code pFrom} end, keeping the insertion order within a
+   * row and dropping parallel edges.
+   */
+  private int[] buildRows(
+      final int[] pFrom, final int[] pTo, final int pEdgeCount, final int[] pOffsets) {
+    final int size = nodes.length;
+    final int[] counts = new int[size + 1];
+    for (int e = 0; e < pEdgeCount; e++) {
+      counts[pFrom[e] + 1]++;
+    }
+    for (int i = 0; i < size; i++) {
+      counts[i + 1] += counts[i];
+    }
+    final int[] rows = new int[pEdgeCount];
+    final int[] fill = Arrays.copyOf(counts, size);
+    for (int e = 0; e < pEdgeCount; e++) {
+      rows[fill[pFrom[e]]++] = pTo[e];
+    }
+
+    // Compact every row in place, dropping duplicates
+    final BitSet seen = new BitSet(size);
+    @Var int write = 0;
+    for (int i = 0; i < size; i++) {
+      pOffsets[i] = write;
+      for (int r = counts[i]; r < counts[i + 1]; r++) {
+        if (!seen.get(rows[r])) {
+          seen.set(rows[r]);
+          rows[write++] = rows[r];
+        }
+      }
+      for (int r = pOffsets[i]; r < write; r++) {
+        seen.clear(rows[r]);
+      }
+    }
+    pOffsets[size] = write;
+    return write == rows.length ? rows : Arrays.copyOf(rows, write);
+  }
+
+  /** A read-only set view of all nodes. */
+  private final class NodeView extends AbstractSet<Node> {
+
+    @Override
+    public int size() {
+      return nodes.length;
+    }
+
+    @Override
+    public boolean contains(final Object pObject) {
+      return pObject instanceof Node && getId((Node) pObject) != NO_NODE;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+      return Iterators.forArray(nodes);
+    }
+  }
+
+  /** A read-only set view of a slice of one of the CSR arrays. */
+  private final class RowView extends AbstractSet<Node> {
+
+    private final int[] row;
+    private final int from;
+    private final int to;
+
+    RowView(final int[] pRow, final int pFrom, final int pTo) {
+      row = pRow;
+      from = pFrom;
+      to = pTo;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public boolean contains(final Object pObject) {
+      if (!(pObject instanceof Node)) {
+        return false;
+      }
+      final int id = getId((Node) pObject);
+      for (int i = from; i < to; i++) {
+        if (row[i] == id) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+      return new Iterator<>() {
+        private int position = from;
+
+        @Override
+        public boolean hasNext() {
+          return position < to;
+        }
+
+        @Override
+        public Node next() {
+          if (position >= to) {
+            throw new NoSuchElementException();
+          }
+          return nodes[row[position++]];
+        }
+      };
+    }
+  }
+}
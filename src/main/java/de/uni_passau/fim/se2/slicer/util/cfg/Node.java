@@ -1,10 +1,8 @@
 package de.uni_passau.fim.se2.slicer.util.cfg;
 
-import com.google.errorprone.annotations.Var;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.FrameNode;
@@ -15,31 +13,54 @@ import org.objectweb.asm.util.Printer;
 import org.objectweb.asm.util.Textifier;
 import org.objectweb.asm.util.TraceMethodVisitor;
 
-/** Represents a node in the {@link ProgramGraph} */
+/**
+ * Represents a node in the {@link ProgramGraph}.
+ *
+ * <p>An instruction node is identified by a dense index that the {@link CFGExtractor} assigns per
+ * method, starting at one; nodes of different methods may share an index and must not be mixed in
+ * one graph. A named node, such as the entry and exit nodes, is identified by its name.
+ */
 public class Node {
 
+  /** The index of named nodes, which are not backed by an instruction. */
+  public static final int NO_INDEX = -1;
+
   private AbstractInsnNode instruction = null;
   private final int lineNumber;
-
-  private static Map<Object, String> sIds = null;
-  static int sNextId = 1;
-
-  private final String id;
+  private final int index;
+  private final String name;
 
   /**
-   * Creates a new node object.
+   * Creates a new instruction node.
    *
    * @param pInstructionNode The instruction node this node is based on
    * @param pLineNumber The line number in the source file
+   * @param pIndex The index of the node, unique among the nodes of its method
    */
-  Node(final AbstractInsnNode pInstructionNode, final int pLineNumber) {
+  Node(final AbstractInsnNode pInstructionNode, final int pLineNumber, final int pIndex) {
     instruction = pInstructionNode;
     lineNumber = pLineNumber;
-    id = getId(pInstructionNode);
+    index = pIndex;
+    name = null;
+  }
+
+  /**
+   * Re-creates an instruction node that was stored outside of a {@link ProgramGraph}, such that it
+   * equals the node it was stored from.
+   *
+   * @param pInstructionNode The instruction node of the stored node, taken from the same method
+   * @param pLineNumber The line number of the stored node
+   * @param pIndex The index of the stored node
+   * @return The node
+   */
+  public static Node restore(
+      final AbstractInsnNode pInstructionNode, final int pLineNumber, final int pIndex) {
+    return new Node(pInstructionNode, pLineNumber, pIndex);
   }
 
   public Node(final String pID) {
-    id = "\"" + pID + "\"";
+    index = NO_INDEX;
+    name = "\"" + pID + "\"";
     lineNumber = -1;
   }
 
@@ -57,7 +78,7 @@ public class Node {
   public String toString() {
     final StringBuilder sb = new StringBuilder();
     if (instruction == null) {
-      return id;
+      return name;
     }
     if (instruction instanceof LabelNode) {
       sb.append("LABEL");
@@ -75,7 +96,7 @@ public class Node {
         }
       }
     }
-    sb.append(getId(instruction));
+    sb.append(index);
     sb.append("  ").append("line number: ").append(lineNumber);
 
     return "\"" + sb.toString() + "\"";
@@ -100,34 +121,33 @@ public class Node {
     return writer.toString();
   }
 
-  private static String getId(final Object pObject) {
-    if (sIds == null) {
-      sIds = new HashMap<>();
-    }
-
-    @Var String id = sIds.get(pObject);
-    if (id == null) {
-      id = Integer.toString(sNextId++);
-      sIds.put(pObject, id);
-    }
-    return id;
-  }
-
   public int getLineNumber() {
     return lineNumber;
   }
 
+  /**
+   * Provides the index of an instruction node within its method.
+   *
+   * @return The index, or {@link #NO_INDEX} for a named node
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Provides the textual id of this node: the index of an instruction node or the quoted name of a
+   * named node.
+   *
+   * @return The id
+   */
   public String getID() {
-    return id;
+    return name == null ? Integer.toString(index) : name;
   }
 
   /** {@inheritDoc} */
   @Override
   public int hashCode() {
-    final int prime = 31;
-    @Var int result = 1;
-    result = prime * result + ((id == null) ? 0 : id.hashCode());
-    return result;
+    return name == null ? index : name.hashCode();
   }
 
   /** {@inheritDoc} */
@@ -143,8 +163,6 @@ public class Node {
       return false;
     }
     final Node other = (Node) obj;
-    if (id == null) {
-      return other.id == null;
-    } else return id.equals(other.id);
+    return index == other.index && Objects.equals(name, other.name);
   }
 }
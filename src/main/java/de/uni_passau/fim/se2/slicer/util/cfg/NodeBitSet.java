@@ -0,0 +1,147 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.common.collect.Sets;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A mutable set of nodes that stores the nodes of a {@link CompactGraph} as bits over their ids.
+ *
+ * <p>Nodes that are not part of the graph may be added as well; they are kept in a separate hash
+ * set that is only created on demand.
+ */
+final class NodeBitSet extends AbstractSet<Node> {
+
+  private final CompactGraph graph;
+  private final BitSet bits;
+  private Set<Node> others;
+
+  /**
+   * Creates a set view over node ids.
+   *
+   * @param pGraph The graph whose node ids are stored
+   * @param pBits The ids of the initial members; the set takes ownership of it
+   */
+  NodeBitSet(final CompactGraph pGraph, final BitSet pBits) {
+    graph = pGraph;
+    bits = pBits;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int size() {
+    return bits.cardinality() + (others == null ? 0 : others.size());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isEmpty() {
+    return bits.isEmpty() && (others == null || others.isEmpty());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean contains(final Object pObject) {
+    if (!(pObject instanceof Node)) {
+      return false;
+    }
+    final int id = graph.getId((Node) pObject);
+    if (id == CompactGraph.NO_NODE) {
+      return others != null && others.contains(pObject);
+    }
+    return bits.get(id);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean add(final Node pNode) {
+    final int id = graph.getId(pNode);
+    if (id == CompactGraph.NO_NODE) {
+      if (others == null) {
+        others = Sets.newHashSet();
+      }
+      return others.add(pNode);
+    }
+    if (bits.get(id)) {
+      return false;
+    }
+    bits.set(id);
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean remove(final Object pObject) {
+    if (!(pObject instanceof Node)) {
+      return false;
+    }
+    final int id = graph.getId((Node) pObject);
+    if (id == CompactGraph.NO_NODE) {
+      return others != null && others.remove(pObject);
+    }
+    if (!bits.get(id)) {
+      return false;
+    }
+    bits.clear(id);
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clear() {
+    bits.clear();
+    others = null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Iterator<Node> iterator() {
+    return new Iterator<>() {
+      private int next = bits.nextSetBit(0);
+      private int last = CompactGraph.NO_NODE;
+      private Iterator<Node> otherIterator;
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0 || others().hasNext();
+      }
+
+      @Override
+      public Node next() {
+        if (next >= 0) {
+          last = next;
+          next = bits.nextSetBit(next + 1);
+          return graph.getNode(last);
+        }
+        last = CompactGraph.NO_NODE;
+        final Iterator<Node> iterator = others();
+        if (!iterator.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return iterator.next();
+      }
+
+      @Override
+      public void remove() {
+        if (last != CompactGraph.NO_NODE) {
+          bits.clear(last);
+          last = CompactGraph.NO_NODE;
+        } else if (otherIterator != null) {
+          otherIterator.remove();
+        } else {
+          throw new IllegalStateException();
+        }
+      }
+
+      private Iterator<Node> others() {
+        if (otherIterator == null) {
+          otherIterator = others == null ? Set.<Node>of().iterator() : others.iterator();
+        }
+        return otherIterator;
+      }
+    };
+  }
+}
@@ -1,16 +1,31 @@
 package de.uni_passau.fim.se2.slicer.util.cfg;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.Var;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.builder.GraphTypeBuilder;
 import org.objectweb.asm.tree.LineNumberNode;
 
-/** Represents a graph structure. */
+/**
+ * Represents a graph structure.
+ *
+ * <p>The graph is built through {@link #addNode(Node)} and {@link #addEdge(Node, Node)}. All
+ * queries are answered from a {@link CompactGraph} snapshot that is created on the first query
+ * after a modification, such that neighbour look-ups neither allocate nor hash once a graph is
+ * complete.
+ *
+ * <p>A graph may be queried from several threads once it is no longer modified. The snapshot and
+ * the indices built on it are created under the graph's lock and published through volatile
+ * fields, such that queries on a complete graph do not lock.
+ */
 public class ProgramGraph {
 
   // A facade class to store graphs as DirectedMultiGraphs using the JGraphT framework.
@@ -19,8 +34,16 @@ public class ProgramGraph {
   // with directed edges, no self-loops, multiple edges, and no weighting.
   private final org.jgrapht.Graph<Node, DefaultEdge> graph;
 
+  /** The snapshot of the current graph, or {@code null} if it was modified since. */
+  private volatile CompactGraph compactGraph;
+
+  /** The reachability index of {@link #compactGraph}, built on demand. */
+  private volatile ReachabilityIndex reachabilityIndex;
+
+  /** The ancestor index of {@link #compactGraph}, built on demand. */
+  private volatile TreeAncestorIndex treeAncestorIndex;
+
   public ProgramGraph() {
-    Node.sNextId = 1;
     graph =
         GraphTypeBuilder.<Node, DefaultEdge>directed()
             .allowingSelfLoops(true)
@@ -35,8 +58,10 @@ public class ProgramGraph {
    *
    * @param pNode The node to add
    */
-  public void addNode(final Node pNode) {
-    graph.addVertex(pNode);
+  public synchronized void addNode(final Node pNode) {
+    if (graph.addVertex(pNode)) {
+      invalidate();
+    }
   }
 
   /**
@@ -45,48 +70,119 @@ public class ProgramGraph {
    * @param pStartNode The start node of the edge
    * @param pEndNode The end node of the edge
    */
-  public void addEdge(final Node pStartNode, final Node pEndNode) {
+  public synchronized void addEdge(final Node pStartNode, final Node pEndNode) {
     graph.addEdge(pStartNode, pEndNode);
+    invalidate();
+  }
+
+  private void invalidate() {
+    compactGraph = null;
+    reachabilityIndex = null;
+    treeAncestorIndex = null;
+  }
+
+  /**
+   * Provides an immutable, index-based snapshot of the current graph. The snapshot is cached until
+   * the graph is modified the next time.
+   *
+   * @return The {@link CompactGraph} of this graph
+   */
+  public CompactGraph compact() {
+    final CompactGraph compact = compactGraph;
+    return compact == null ? buildCompactGraph() : compact;
+  }
+
+  private synchronized CompactGraph buildCompactGraph() {
+    if (compactGraph == null) {
+      final Node[] nodes = graph.vertexSet().toArray(new Node[0]);
+      final Map<Node, Integer> ids = Maps.newHashMapWithExpectedSize(nodes.length);
+      for (int i = 0; i < nodes.length; i++) {
+        ids.put(nodes[i], i);
+      }
+      final Set<DefaultEdge> edges = graph.edgeSet();
+      final int[] sources = new int[edges.size()];
+      final int[] targets = new int[edges.size()];
+      @Var int count = 0;
+      for (DefaultEdge edge : edges) {
+        sources[count] = ids.get(graph.getEdgeSource(edge));
+        targets[count] = ids.get(graph.getEdgeTarget(edge));
+        count++;
+      }
+      compactGraph = new CompactGraph(nodes, ids, sources, targets, count);
+    }
+    return compactGraph;
+  }
+
+  /**
+   * Provides a {@link ReachabilityIndex} for the current graph. The index is built on the first
+   * call and reused until the graph is modified the next time.
+   *
+   * @return The reachability index of this graph
+   */
+  public ReachabilityIndex getReachabilityIndex() {
+    final ReachabilityIndex index = reachabilityIndex;
+    return index == null ? buildReachabilityIndex() : index;
+  }
+
+  private synchronized ReachabilityIndex buildReachabilityIndex() {
+    if (reachabilityIndex == null) {
+      reachabilityIndex = new ReachabilityIndex(compact());
+    }
+    return reachabilityIndex;
+  }
+
+  /**
+   * Provides a {@link TreeAncestorIndex} for the current graph. The index is built on the first
+   * call and reused until the graph is modified the next time.
+   *
+   * @return The tree ancestor index of this graph
+   */
+  public TreeAncestorIndex getTreeAncestorIndex() {
+    final TreeAncestorIndex index = treeAncestorIndex;
+    return index == null ? buildTreeAncestorIndex() : index;
+  }
+
+  private synchronized TreeAncestorIndex buildTreeAncestorIndex() {
+    if (treeAncestorIndex == null) {
+      treeAncestorIndex = new TreeAncestorIndex(compact());
+    }
+    return treeAncestorIndex;
   }
 
   /**
    * Returns the immediate predecessors of a node.
    *
    * @param pNode The node who's predecessors we're searching for
-   * @return A set of node's that are predecessors to {@code a}
+   * @return An unmodifiable set of node's that are predecessors to {@code a}, empty if the node is
+   *     not part of the graph
    */
   public Set<Node> getPredecessors(final Node pNode) {
-    Set<Node> predecessors = Sets.newHashSet();
-    for (DefaultEdge edge : graph.incomingEdgesOf(pNode)) {
-      predecessors.add(graph.getEdgeSource(edge));
-    }
-    return predecessors;
+    final CompactGraph compact = compact();
+    final int id = compact.getId(pNode);
+    return id == CompactGraph.NO_NODE ? Collections.emptySet() : compact.predecessorsOf(id);
   }
 
   /**
    * Returns the immediate successors of a node.
    *
    * @param pNode The node who's successors we're searching for
-   * @return A set of node's that are successors to {@code a}
+   * @return An unmodifiable set of node's that are successors to {@code a}, empty if the node is
+   *     not part of the graph
    */
   public Set<Node> getSuccessors(final Node pNode) {
-    final Set<Node> successors = Sets.newHashSet();
-    if (!graph.containsVertex(pNode)) {
-      return successors;
-    }
-    for (DefaultEdge edge : graph.outgoingEdgesOf(pNode)) {
-      successors.add(graph.getEdgeTarget(edge));
-    }
-    return successors;
+    final CompactGraph compact = compact();
+    final int id = compact.getId(pNode);
+    return id == CompactGraph.NO_NODE ? Collections.emptySet() : compact.successorsOf(id);
   }
 
   /**
    * Returns all of the nodes in the graph.
    *
-   * @return A set of all {@link Node}s in the graph
+   * @return An unmodifiable set of all {@link Node}s in the graph, taken from the current snapshot;
+   *     it does not reflect later modifications
    */
   public Set<Node> getNodes() {
-    return graph.vertexSet();
+    return compact().getNodes();
   }
 
   /**
@@ -96,12 +192,9 @@ public class ProgramGraph {
    * @return The entry {@link Node} of the graph
    */
   public Node getEntry() {
-    for (Node node : getNodes()) {
-      if (graph.incomingEdgesOf(node).isEmpty()) {
-        return node;
-      }
-    }
-    return null;
+    final CompactGraph compact = compact();
+    final int entry = compact.getEntry();
+    return entry == CompactGraph.NO_NODE ? null : compact.getNode(entry);
   }
 
   /**
@@ -111,12 +204,9 @@ public class ProgramGraph {
    * @return The exit {@link Node} of the graph
    */
   public Node getExit() {
-    for (Node node : getNodes()) {
-      if (graph.outgoingEdgesOf(node).isEmpty()) {
-        return node;
-      }
-    }
-    return null;
+    final CompactGraph compact = compact();
+    final int exit = compact.getExit();
+    return exit == CompactGraph.NO_NODE ? null : compact.getNode(exit);
   }
 
   /**
@@ -141,23 +231,38 @@ public class ProgramGraph {
    * Return all transitive successors of m - i.e. any instructions that could eventually be reached
    * from m.
    *
+   * <p>The traversal uses an explicit stack and marks reached nodes in a single bit set over the
+   * node ids of {@link #compact()}. The returned set is backed by that bit set; it is a fresh,
+   * modifiable set for each call.
+   *
    * @param pNode The {@link Node} who's transitive successors we're searching for
-   * @return A collection of {@link Node}s that are transitive successors to {@code m}
+   * @return A set of {@link Node}s that are transitive successors to {@code m}; {@code m} itself
+   *     is only contained if it is part of a cycle
    */
-  public Collection<Node> getTransitiveSuccessors(final Node pNode) {
-    return transitiveSuccessors(pNode, Sets.newHashSet());
-  }
-
-  private Collection<Node> transitiveSuccessors(final Node pNode, final Set<Node> pDoneSet) {
-    final Collection<Node> successors = Sets.newHashSet();
-    for (Node node : getSuccessors(pNode)) {
-      if (!pDoneSet.contains(node)) {
-        successors.add(node);
-        pDoneSet.add(node);
-        successors.addAll(transitiveSuccessors(node, pDoneSet));
+  public Set<Node> getTransitiveSuccessors(final Node pNode) {
+    final CompactGraph compact = compact();
+    final BitSet reached = new BitSet(compact.size());
+    final int start = compact.getId(pNode);
+    if (start != CompactGraph.NO_NODE) {
+      // Every node is pushed at most once, when it is marked
+      final int[] stack = new int[compact.size()];
+      @Var int top = 0;
+      @Var int current = start;
+      while (true) {
+        for (int s = 0; s < compact.getSuccessorCount(current); s++) {
+          final int successor = compact.getSuccessor(current, s);
+          if (!reached.get(successor)) {
+            reached.set(successor);
+            stack[top++] = successor;
+          }
+        }
+        if (top == 0) {
+          break;
+        }
+        current = stack[--top];
       }
     }
-    return successors;
+    return new NodeBitSet(compact, reached);
   }
 
   /**
@@ -190,11 +295,23 @@ public class ProgramGraph {
    *
    * <p>Important: This operation presumes that the graph contains no cycles.
    *
+   * <p>If the graph is a tree, e.g., a post-dominator tree, the query is answered by a {@link
+   * TreeAncestorIndex} in logarithmic time.
+   *
    * @param pFirstNode A {@link Node}
    * @param pSecondNode Another {@link Node}
    * @return The node that is the least common ancestor of the two parameter nodes
    */
   public Node getLeastCommonAncestor(final Node pFirstNode, final Node pSecondNode) {
+    final CompactGraph compact = compact();
+    final int first = compact.getId(pFirstNode);
+    final int second = compact.getId(pSecondNode);
+    if (first != CompactGraph.NO_NODE && second != CompactGraph.NO_NODE) {
+      final TreeAncestorIndex index = getTreeAncestorIndex();
+      if (index.isTree()) {
+        return compact.getNode(index.getLeastCommonAncestor(first, second));
+      }
+    }
     @Var Node current = pFirstNode;
     while (!containsTransitiveSuccessors(current, pFirstNode, pSecondNode)) {
       current = getPredecessors(current).iterator().next();
@@ -204,9 +321,8 @@ public class ProgramGraph {
 
   private boolean containsTransitiveSuccessors(
       final Node pStartNode, final Node pFirstNode, final Node pSecondNode) {
-    Collection<Node> transitiveSuccessors = getTransitiveSuccessors(pStartNode);
-    transitiveSuccessors.add(pStartNode);
-    return transitiveSuccessors.contains(pFirstNode) && transitiveSuccessors.contains(pSecondNode);
+    final ReachabilityIndex index = getReachabilityIndex();
+    return index.isReachable(pStartNode, pFirstNode) && index.isReachable(pStartNode, pSecondNode);
   }
 
 }
@@ -0,0 +1,122 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.objectweb.asm.tree.InsnList;
+
+/**
+ * Writes and reads the graphs of a single method in a compact binary form.
+ *
+ * <p>All graphs share one node table. An instruction node is stored by the index of its
+ * instruction in the method's {@link InsnList}, its line number and its index; any other node by its
+ * name. When reading, the instruction nodes are re-created on the instructions of the same method,
+ * such that the graphs are indistinguishable from freshly computed ones.
+ */
+public final class ProgramGraphSerializer {
+
+  private static final byte INSTRUCTION_NODE = 0;
+  private static final byte NAMED_NODE = 1;
+
+  private ProgramGraphSerializer() {}
+
+  /**
+   * Writes graphs of a method.
+   *
+   * @param pOutput The output to write to
+   * @param pInstructions The instructions of the method the graphs were built for
+   * @param pGraphs The graphs to write
+   * @throws IOException In case of an IO error
+   */
+  public static void write(
+      final DataOutput pOutput, final InsnList pInstructions, final List<ProgramGraph> pGraphs)
+      throws IOException {
+    final Map<Node, Integer> nodeIndices = Maps.newLinkedHashMap();
+    for (ProgramGraph graph : pGraphs) {
+      for (Node node : graph.getNodes()) {
+        nodeIndices.putIfAbsent(node, nodeIndices.size());
+      }
+    }
+
+    pOutput.writeInt(nodeIndices.size());
+    for (Node node : nodeIndices.keySet()) {
+      if (node.getInstruction() != null) {
+        pOutput.writeByte(INSTRUCTION_NODE);
+        pOutput.writeInt(pInstructions.indexOf(node.getInstruction()));
+        pOutput.writeInt(node.getLineNumber());
+        pOutput.writeInt(node.getIndex());
+      } else {
+        final String id = node.getID();
+        pOutput.writeByte(NAMED_NODE);
+        pOutput.writeUTF(id.substring(1, id.length() - 1));
+      }
+    }
+
+    pOutput.writeInt(pGraphs.size());
+    for (ProgramGraph graph : pGraphs) {
+      final CompactGraph compact = graph.compact();
+      pOutput.writeInt(compact.size());
+      for (int i = 0; i < compact.size(); i++) {
+        pOutput.writeInt(nodeIndices.get(compact.getNode(i)));
+      }
+      pOutput.writeInt(compact.getEdgeCount());
+      for (int i = 0; i < compact.size(); i++) {
+        for (int s = 0; s < compact.getSuccessorCount(i); s++) {
+          pOutput.writeInt(i);
+          pOutput.writeInt(compact.getSuccessor(i, s));
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads graphs of a method written by {@link #write}.
+   *
+   * @param pInput The input to read from
+   * @param pInstructions The instructions of the method the graphs were built for
+   * @return The graphs, in the order they were written
+   * @throws IOException In case of an IO error or malformed input
+   */
+  public static List<ProgramGraph> read(final DataInput pInput, final InsnList pInstructions)
+      throws IOException {
+    final int nodeCount = pInput.readInt();
+    final Node[] nodes = new Node[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      final byte kind = pInput.readByte();
+      if (kind == INSTRUCTION_NODE) {
+        final int index = pInput.readInt();
+        if (index < 0 || index >= pInstructions.size()) {
+          throw new IOException("Invalid instruction index " + index);
+        }
+        final int lineNumber = pInput.readInt();
+        nodes[i] = new Node(pInstructions.get(index), lineNumber, pInput.readInt());
+      } else if (kind == NAMED_NODE) {
+        nodes[i] = new Node(pInput.readUTF());
+      } else {
+        throw new IOException("Invalid node kind " + kind);
+      }
+    }
+
+    final int graphCount = pInput.readInt();
+    final List<ProgramGraph> graphs = Lists.newArrayListWithCapacity(graphCount);
+    for (int g = 0; g < graphCount; g++) {
+      final ProgramGraph graph = new ProgramGraph();
+      final Node[] graphNodes = new Node[pInput.readInt()];
+      for (int i = 0; i < graphNodes.length; i++) {
+        graphNodes[i] = nodes[pInput.readInt()];
+        graph.addNode(graphNodes[i]);
+      }
+      final int edgeCount = pInput.readInt();
+      for (int e = 0; e < edgeCount; e++) {
+        final Node source = graphNodes[pInput.readInt()];
+        graph.addEdge(source, graphNodes[pInput.readInt()]);
+      }
+      graphs.add(graph);
+    }
+    return graphs;
+  }
+}
@@ -0,0 +1,153 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.errorprone.annotations.Var;
+import java.util.BitSet;
+
+/**
+ * Answers reachability queries on a {@link CompactGraph}.
+ *
+ * <p>The graph is condensed into its {@link StronglyConnectedComponents}, which are numbered in
+ * reverse topological order, i.e., every edge leads from a component to one with an equal or
+ * smaller number. If the transitive closure of the condensation fits into the configured number of
+ * bits, it is computed once as a bit matrix and queries take constant time. Otherwise queries fall
+ * back to a depth-first search on the condensation that never enters components with a smaller
+ * number than the target.
+ */
+public final class ReachabilityIndex {
+
+  /** The default upper bound for the size of the closure matrix: 8 MiB. */
+  public static final long DEFAULT_MAX_MATRIX_BITS = 1L << 26;
+
+  private final CompactGraph graph;
+
+  private final StronglyConnectedComponents components;
+
+  /** The closure rows of every component, or {@code null} if the matrix would be too large. */
+  private final long[][] closure;
+
+  /**
+   * Builds the index for a graph with the default memory bound.
+   *
+   * @param pGraph The graph to index
+   */
+  public ReachabilityIndex(final CompactGraph pGraph) {
+    this(pGraph, DEFAULT_MAX_MATRIX_BITS);
+  }
+
+  /**
+   * Builds the index for a graph.
+   *
+   * @param pGraph The graph to index
+   * @param pMaxMatrixBits The maximum number of bits the closure matrix may occupy; above that
+   *     queries are answered by search
+   */
+  public ReachabilityIndex(final CompactGraph pGraph, final long pMaxMatrixBits) {
+    graph = pGraph;
+    components = new StronglyConnectedComponents(pGraph);
+    final long componentCount = components.getComponentCount();
+    if (componentCount * componentCount <= pMaxMatrixBits) {
+      closure = computeClosure();
+    } else {
+      closure = null;
+    }
+  }
+
+  /**
+   * Checks whether there is a path, possibly of length zero, between two nodes.
+   *
+   * @param pFrom The id of the start node
+   * @param pTo The id of the target node
+   * @return {@code true} if {@code pTo} can be reached from {@code pFrom}
+   */
+  public boolean isReachable(final int pFrom, final int pTo) {
+    final int from = components.getComponent(pFrom);
+    final int to = components.getComponent(pTo);
+    if (from == to) {
+      return true;
+    }
+    if (from < to) {
+      return false;
+    }
+    if (closure != null) {
+      return (closure[from][to >>> 6] & (1L << to)) != 0;
+    }
+    return search(from, to);
+  }
+
+  /**
+   * Checks whether there is a path, possibly of length zero, between two nodes of the graph.
+   *
+   * @param pFrom The start node
+   * @param pTo The target node
+   * @return {@code true} if {@code pTo} can be reached from {@code pFrom}; nodes that are not part
+   *     of the graph only reach themselves
+   */
+  public boolean isReachable(final Node pFrom, final Node pTo) {
+    final int from = graph.getId(pFrom);
+    final int to = graph.getId(pTo);
+    if (from == CompactGraph.NO_NODE || to == CompactGraph.NO_NODE) {
+      return pFrom.equals(pTo);
+    }
+    return isReachable(from, to);
+  }
+
+  /**
+   * Provides the number of strongly connected components of the graph.
+   *
+   * @return The number of components
+   */
+  public int getComponentCount() {
+    return components.getComponentCount();
+  }
+
+  /**
+   * Checks whether queries are answered from a precomputed closure matrix.
+   *
+   * @return {@code true} if the closure matrix fitted into the memory bound
+   */
+  public boolean hasClosureMatrix() {
+    return closure != null;
+  }
+
+  private boolean search(final int pFrom, final int pTo) {
+    final BitSet visited = new BitSet(components.getComponentCount());
+    final int[] stack = new int[components.getComponentCount()];
+    @Var int top = 0;
+    stack[top++] = pFrom;
+    visited.set(pFrom);
+    while (top > 0) {
+      final int component = stack[--top];
+      for (int i = 0; i < components.getComponentSuccessorCount(component); i++) {
+        final int successor = components.getComponentSuccessor(component, i);
+        if (successor == pTo) {
+          return true;
+        }
+        // Components with a smaller number than the target cannot lead to it
+        if (successor > pTo && !visited.get(successor)) {
+          visited.set(successor);
+          stack[top++] = successor;
+        }
+      }
+    }
+    return false;
+  }
+
+  private long[][] computeClosure() {
+    final int componentCount = components.getComponentCount();
+    final int words = (componentCount + 63) >>> 6;
+    final long[][] rows = new long[componentCount][];
+    // Successor components always have a smaller number and are therefore complete already
+    for (int component = 0; component < componentCount; component++) {
+      final long[] row = new long[words];
+      row[component >>> 6] |= 1L << component;
+      for (int i = 0; i < components.getComponentSuccessorCount(component); i++) {
+        final long[] successorRow = rows[components.getComponentSuccessor(component, i)];
+        for (int w = 0; w < words; w++) {
+          row[w] |= successorRow[w];
+        }
+      }
+      rows[component] = row;
+    }
+    return rows;
+  }
+}
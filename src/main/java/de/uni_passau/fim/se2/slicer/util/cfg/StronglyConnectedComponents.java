@@ -0,0 +1,189 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.errorprone.annotations.Var;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The strongly connected components of a {@link CompactGraph} and the condensation they form.
+ *
+ * <p>Components are numbered in reverse topological order, i.e., every edge leads from a component
+ * to one with an equal or smaller number, so a pass over the components in ascending order sees
+ * every successor component before the components leading to it. The members of each component
+ * and the distinct edges between components are stored in flat arrays.
+ */
+public final class StronglyConnectedComponents {
+
+  private final CompactGraph graph;
+
+  /** The component number of every node id. */
+  private final int[] components;
+
+  private final int componentCount;
+  private final int[] members;
+  private final int[] memberOffsets;
+  private final int[] componentSuccessorOffsets;
+  private final int[] componentSuccessors;
+
+  /**
+   * Computes the components of a graph.
+   *
+   * @param pGraph The graph to condense
+   */
+  public StronglyConnectedComponents(final CompactGraph pGraph) {
+    graph = pGraph;
+    components = new int[pGraph.size()];
+    members = new int[pGraph.size()];
+    memberOffsets = new int[pGraph.size() + 1];
+    componentCount = computeComponents();
+
+    componentSuccessorOffsets = new int[componentCount + 1];
+    componentSuccessors = condense();
+  }
+
+  /**
+   * Provides the number of strongly connected components of the graph.
+   *
+   * @return The number of components
+   */
+  public int getComponentCount() {
+    return componentCount;
+  }
+
+  /**
+   * Provides the component of a node. Components are numbered in reverse topological order: every
+   * successor component of a component has a smaller number.
+   *
+   * @param pId The node id
+   * @return The number of the strongly connected component containing the node
+   */
+  public int getComponent(final int pId) {
+    return components[pId];
+  }
+
+  public int getMemberCount(final int pComponent) {
+    return memberOffsets[pComponent + 1] - memberOffsets[pComponent];
+  }
+
+  /**
+   * Provides the {@code pIndex}-th node of a component.
+   *
+   * @param pComponent The component number
+   * @param pIndex A value in {@code [0, getMemberCount(pComponent))}
+   * @return The id of the node
+   */
+  public int getMember(final int pComponent, final int pIndex) {
+    return members[memberOffsets[pComponent] + pIndex];
+  }
+
+  public int getComponentSuccessorCount(final int pComponent) {
+    return componentSuccessorOffsets[pComponent + 1] - componentSuccessorOffsets[pComponent];
+  }
+
+  /**
+   * Provides the {@code pIndex}-th distinct successor of a component in the condensation.
+   *
+   * @param pComponent The component number
+   * @param pIndex A value in {@code [0, getComponentSuccessorCount(pComponent))}
+   * @return The number of the successor component, always smaller than {@code pComponent}
+   */
+  public int getComponentSuccessor(final int pComponent, final int pIndex) {
+    return componentSuccessors[componentSuccessorOffsets[pComponent] + pIndex];
+  }
+
+  /** Collects the distinct edges between components, grouped by source component. */
+  private int[] condense() {
+    final int[] edges = new int[graph.getEdgeCount()];
+    @Var int count = 0;
+    final int[] lastSource = new int[componentCount];
+    Arrays.fill(lastSource, -1);
+    for (int component = 0; component < componentCount; component++) {
+      componentSuccessorOffsets[component] = count;
+      for (int m = memberOffsets[component]; m < memberOffsets[component + 1]; m++) {
+        final int node = members[m];
+        for (int s = 0; s < graph.getSuccessorCount(node); s++) {
+          final int target = components[graph.getSuccessor(node, s)];
+          if (target != component && lastSource[target] != component) {
+            lastSource[target] = component;
+            edges[count++] = target;
+          }
+        }
+      }
+    }
+    componentSuccessorOffsets[componentCount] = count;
+    return Arrays.copyOf(edges, count);
+  }
+
+  /**
+   * Computes the strongly connected components with an iterative version of Tarjan's algorithm.
+   * Tarjan's algorithm completes components in reverse topological order, which gives the
+   * numbering of this class.
+   *
+   * @return The number of components
+   */
+  private int computeComponents() {
+    final int size = graph.size();
+    final int[] order = new int[size];
+    final int[] lowLink = new int[size];
+    Arrays.fill(order, -1);
+    final BitSet onStack = new BitSet(size);
+    final int[] componentStack = new int[size];
+    @Var int componentStackTop = 0;
+    final int[] callStack = new int[size];
+    final int[] edgeStack = new int[size];
+    @Var int componentCounter = 0;
+    @Var int memberCount = 0;
+    @Var int counter = 0;
+
+    for (int root = 0; root < size; root++) {
+      if (order[root] >= 0) {
+        continue;
+      }
+      @Var int depth = 0;
+      callStack[0] = root;
+      edgeStack[0] = 0;
+      order[root] = counter;
+      lowLink[root] = counter++;
+      componentStack[componentStackTop++] = root;
+      onStack.set(root);
+
+      while (depth >= 0) {
+        final int node = callStack[depth];
+        if (edgeStack[depth] < graph.getSuccessorCount(node)) {
+          final int successor = graph.getSuccessor(node, edgeStack[depth]++);
+          if (order[successor] < 0) {
+            order[successor] = counter;
+            lowLink[successor] = counter++;
+            componentStack[componentStackTop++] = successor;
+            onStack.set(successor);
+            depth++;
+            callStack[depth] = successor;
+            edgeStack[depth] = 0;
+          } else if (onStack.get(successor)) {
+            lowLink[node] = Math.min(lowLink[node], order[successor]);
+          }
+          continue;
+        }
+
+        if (lowLink[node] == order[node]) {
+          memberOffsets[componentCounter] = memberCount;
+          @Var int member;
+          do {
+            member = componentStack[--componentStackTop];
+            onStack.clear(member);
+            components[member] = componentCounter;
+            members[memberCount++] = member;
+          } while (member != node);
+          componentCounter++;
+        }
+        depth--;
+        if (depth >= 0) {
+          final int parent = callStack[depth];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+        }
+      }
+    }
+    memberOffsets[componentCounter] = memberCount;
+    return componentCounter;
+  }
+}
@@ -0,0 +1,133 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import com.google.errorprone.annotations.Var;
+
+/**
+ * Answers least-common-ancestor queries on a {@link CompactGraph} that is a rooted tree, such as a
+ * post-dominator tree, using binary lifting.
+ *
+ * <p>Building the index takes {@code O(n log n)} time and space, each query takes {@code O(log
+ * n)}. If the graph is not a tree - it has no single root, a node with several predecessors, or
+ * a cycle - {@link #isTree()} returns {@code false} and the index must not be queried.
+ */
+public final class TreeAncestorIndex {
+
+  private final boolean tree;
+
+  /** The distance of every node id from the root. */
+  private final int[] depths;
+
+  /** {@code ancestors[k][v]} is the {@code 2^k}-th ancestor of {@code v}, the root for its own. */
+  private final int[][] ancestors;
+
+  /**
+   * Builds the index for a graph.
+   *
+   * @param pGraph The graph to index
+   */
+  public TreeAncestorIndex(final CompactGraph pGraph) {
+    final int size = pGraph.size();
+    depths = new int[size];
+    final int[] parents = new int[size];
+    tree = computeParents(pGraph, parents);
+    if (!tree) {
+      ancestors = new int[0][];
+      return;
+    }
+
+    @Var int levels = 1;
+    while ((1 << levels) < size) {
+      levels++;
+    }
+    ancestors = new int[levels][];
+    ancestors[0] = parents;
+    for (int k = 1; k < levels; k++) {
+      final int[] previous = ancestors[k - 1];
+      final int[] current = new int[size];
+      for (int v = 0; v < size; v++) {
+        current[v] = previous[previous[v]];
+      }
+      ancestors[k] = current;
+    }
+  }
+
+  /**
+   * Checks whether the indexed graph is a rooted tree.
+   *
+   * @return {@code true} if the graph is a tree and the index can be queried
+   */
+  public boolean isTree() {
+    return tree;
+  }
+
+  /**
+   * Provides the least common ancestor of two nodes, where every node is an ancestor of itself.
+   *
+   * @param pFirst The id of the first node
+   * @param pSecond The id of the second node
+   * @return The id of the deepest node that is an ancestor of both nodes
+   */
+  public int getLeastCommonAncestor(final int pFirst, final int pSecond) {
+    @Var int first = pFirst;
+    @Var int second = pSecond;
+    if (depths[first] < depths[second]) {
+      final int swap = first;
+      first = second;
+      second = swap;
+    }
+    // Lift the deeper node to the depth of the other one
+    @Var int difference = depths[first] - depths[second];
+    for (int k = 0; difference > 0; k++, difference >>>= 1) {
+      if ((difference & 1) != 0) {
+        first = ancestors[k][first];
+      }
+    }
+    if (first == second) {
+      return first;
+    }
+    for (int k = ancestors.length - 1; k >= 0; k--) {
+      if (ancestors[k][first] != ancestors[k][second]) {
+        first = ancestors[k][first];
+        second = ancestors[k][second];
+      }
+    }
+    return ancestors[0][first];
+  }
+
+  /**
+   * Computes the parent and depth of every node in a breadth-first traversal from the root.
+   *
+   * @return {@code false} if the graph is not a rooted tree
+   */
+  private boolean computeParents(final CompactGraph pGraph, final int[] pParents) {
+    final int size = pGraph.size();
+    final int root = pGraph.getEntry();
+    if (size == 0 || root == CompactGraph.NO_NODE) {
+      return false;
+    }
+    for (int v = 0; v < size; v++) {
+      if (v != root && pGraph.getPredecessorCount(v) != 1) {
+        return false;
+      }
+    }
+    // With one root and a single parent everywhere else, the graph is a tree iff all is reached
+    final int[] queue = new int[size];
+    @Var int head = 0;
+    @Var int tail = 0;
+    queue[tail++] = root;
+    pParents[root] = root;
+    while (head < tail) {
+      final int node = queue[head++];
+      for (int s = 0; s < pGraph.getSuccessorCount(node); s++) {
+        final int child = pGraph.getSuccessor(node, s);
+        if (child == root) {
+          return false;
+        }
+        pParents[child] = node;
+        depths[child] = depths[node] + 1;
+        queue[tail++] = child;
+      }
+    }
+    return tail == size;
+  }
+}
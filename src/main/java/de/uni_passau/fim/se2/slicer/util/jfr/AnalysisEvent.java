@@ -0,0 +1,28 @@
+package de.uni_passau.fim.se2.slicer.util.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records a {@code computeResult} call of an analysis. The duration includes the computation of
+ * artefacts the analysis depends on that were not available yet; those are recorded as events of
+ * their own.
+ */
+@Name("de.uni_passau.fim.se2.slicer.Analysis")
+@Label("Analysis")
+@Description("Computing the resulting graph of an analysis of a method")
+public class AnalysisEvent extends MethodEvent {
+
+  @Label("Analysis")
+  private String analysis;
+
+  /**
+   * Creates an event for an analysis.
+   *
+   * @param pAnalysis The name of the analysis
+   */
+  public AnalysisEvent(final String pAnalysis) {
+    analysis = pAnalysis;
+  }
+}
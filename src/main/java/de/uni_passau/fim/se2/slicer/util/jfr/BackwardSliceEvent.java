@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.slicer.util.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records the computation of a backward slice. Nodes and edges are those of the reversed
+ * program-dependence graph the slice is computed on.
+ */
+@Name("de.uni_passau.fim.se2.slicer.BackwardSlice")
+@Label("Backward Slice")
+@Description("Computing the backward slice of a criterion")
+public class BackwardSliceEvent extends MethodEvent {
+
+  @Label("Criterion")
+  private String criterion;
+
+  @Label("Slice Size")
+  private int sliceSize;
+
+  public void setCriterion(final String pCriterion) {
+    criterion = pCriterion;
+  }
+
+  public void setSliceSize(final int pSliceSize) {
+    sliceSize = pSliceSize;
+  }
+}
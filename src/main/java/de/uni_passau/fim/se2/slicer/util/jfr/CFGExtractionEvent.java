@@ -0,0 +1,11 @@
+package de.uni_passau.fim.se2.slicer.util.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Records the extraction of the control-flow graph of a method. */
+@Name("de.uni_passau.fim.se2.slicer.CFGExtraction")
+@Label("CFG Extraction")
+@Description("Building the instruction-level control-flow graph of a method")
+public class CFGExtractionEvent extends MethodEvent {}
@@ -0,0 +1,28 @@
+package de.uni_passau.fim.se2.slicer.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Records the parsing of a class file into ASM's tree representation. */
+@Name("de.uni_passau.fim.se2.slicer.ClassParsing")
+@Label("Class Parsing")
+@Description("Reading and parsing a class file, including its local-variable tables")
+@Category({"Slicer", "Input"})
+public class ClassParsingEvent extends jdk.jfr.Event {
+
+  @Label("Class")
+  private String className;
+
+  @Label("Methods")
+  private int methodCount;
+
+  public void setClassName(final String pClassName) {
+    className = pClassName;
+  }
+
+  public void setMethodCount(final int pMethodCount) {
+    methodCount = pMethodCount;
+  }
+}
@@ -0,0 +1,59 @@
+package de.uni_passau.fim.se2.slicer.util.jfr;
+
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * The base of all Java Flight Recorder events that describe a step of the analysis of a single
+ * method. The fields are only filled if the event is about to be committed, such that disabled
+ * events cost next to nothing.
+ *
+ * <p>The fields are {@code protected} because the flight recorder only records fields of a
+ * superclass that are not {@code private}.
+ */
+@Category({"Slicer", "Analysis"})
+public abstract class MethodEvent extends jdk.jfr.Event {
+
+  @Label("Class")
+  protected String className;
+
+  @Label("Method")
+  protected String method;
+
+  @Label("Instructions")
+  protected int instructionCount;
+
+  @Label("Nodes")
+  protected int nodes;
+
+  @Label("Edges")
+  protected int edges;
+
+  /**
+   * Sets the method the event is about.
+   *
+   * @param pClassName The internal name of the class owning the method, may be {@code null}
+   * @param pMethodNode The method, may be {@code null} for graphs not backed by byte code
+   */
+  public void setMethod(final String pClassName, final MethodNode pMethodNode) {
+    className = pClassName;
+    if (pMethodNode != null) {
+      method = pMethodNode.name + ":" + pMethodNode.desc;
+      instructionCount = pMethodNode.instructions.size();
+    }
+  }
+
+  /**
+   * Sets the size of the graph the event has produced or worked on.
+   *
+   * @param pGraph The graph, may be {@code null}
+   */
+  public void setGraph(final ProgramGraph pGraph) {
+    if (pGraph != null) {
+      nodes = pGraph.getNodes().size();
+      edges = pGraph.compact().getEdgeCount();
+    }
+  }
+}
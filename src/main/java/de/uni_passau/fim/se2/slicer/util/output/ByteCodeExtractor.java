@@ -1,7 +1,7 @@
 package de.uni_passau.fim.se2.slicer.util.output;
 
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
-import java.util.List;
+import java.io.IOException;
 import java.util.Set;
 
 public class ByteCodeExtractor implements Extractor {
@@ -14,24 +14,21 @@ public class ByteCodeExtractor implements Extractor {
 
   /** {@inheritDoc} */
   @Override
-  public String extract() {
-    final List<Node> sortedNodes = NodeSorter.sort(nodes);
-    final StringBuilder builder = new StringBuilder();
-    for (Node node : sortedNodes) {
-      final String prettyPrint = node.prettyPrint().trim();
+  public void extract(final Appendable pOutput) throws IOException {
+    for (Node node : NodeSorter.sort(nodes)) {
       final String nodeID = node.getID();
       if (nodeID.equals("\"start\"")) {
         continue;
-      } else if (nodeID.matches("-?\\d+")) {
-        builder.append(
-            String.format(
-                "(line: %4d, id: %4d)  %s\n",
-                node.getLineNumber(), Integer.parseInt(nodeID), prettyPrint));
+      }
+      pOutput.append("(line: ");
+      OutputFormat.appendPadded(pOutput, Integer.toString(node.getLineNumber()), 4);
+      pOutput.append(", id: ");
+      if (OutputFormat.isInteger(nodeID)) {
+        OutputFormat.appendPadded(pOutput, nodeID, 4);
       } else {
-        builder.append(
-            String.format("(line: %4d, id: %s)  %s\n", node.getLineNumber(), nodeID, prettyPrint));
+        pOutput.append(nodeID);
       }
+      pOutput.append(")  ").append(node.prettyPrint().trim()).append('\n');
     }
-    return builder.toString();
   }
 }
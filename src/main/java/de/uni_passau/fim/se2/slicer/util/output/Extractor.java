@@ -1,26 +1,45 @@
 package de.uni_passau.fim.se2.slicer.util.output;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 
 /**
  * Defines an extractor that can be used to pretty print a set of {@link
  * de.uni_passau.fim.se2.slicer.util.cfg.Node}s.
+ *
+ * <p>Extractors render node by node into an {@link Appendable}, such that reports can be streamed
+ * to files or sockets without being built up in memory first.
  */
 public interface Extractor {
 
   /**
-   * Extracts the representation to a given file {@link Path}.
+   * Extracts the representation to a given file {@link Path}, replacing any previous content.
    *
    * @param pExtractionFile The {@link Path} to the result file
    * @throws IOException In case an IO error occurs
    */
   default void extractToFile(final Path pExtractionFile) throws IOException {
-    Files.write(
-        pExtractionFile, extract().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+    try (Writer writer = Files.newBufferedWriter(pExtractionFile, StandardCharsets.UTF_8)) {
+      extract(writer);
+    }
+  }
+
+  /**
+   * Extracts the representation to a stream, encoded as UTF-8. The stream is flushed but not
+   * closed.
+   *
+   * @param pOutput The stream to write to
+   * @throws IOException In case an IO error occurs
+   */
+  default void extract(final OutputStream pOutput) throws IOException {
+    final Writer writer = new OutputStreamWriter(pOutput, StandardCharsets.UTF_8);
+    extract(writer);
+    writer.flush();
   }
 
   /**
@@ -29,5 +48,18 @@ public interface Extractor {
    * @return A string representation
    * @throws IOException In case an IO error occurs
    */
-  String extract() throws IOException;
+  default String extract() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    extract(builder);
+    return builder.toString();
+  }
+
+  /**
+   * Appends the representation to an {@link Appendable}. Callers should buffer unbuffered
+   * outputs, as the representation is appended in many small pieces.
+   *
+   * @param pOutput The output to append to
+   * @throws IOException In case an IO error occurs
+   */
+  void extract(Appendable pOutput) throws IOException;
 }
@@ -1,36 +1,37 @@
 package de.uni_passau.fim.se2.slicer.util.output;
 
-import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.MultimapBuilder;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 
 /** Sorts a set of nodes based on the {@link Node#getLineNumber()} value. */
 class NodeSorter {
 
+  /**
+   * Orders nodes by line, nodes of the same line by their position in the method, and named nodes,
+   * which have no position, by their name.
+   */
+  private static final Comparator<Node> ORDER =
+      Comparator.comparingInt(Node::getLineNumber)
+          .thenComparingInt(Node::getIndex)
+          .thenComparing(Node::getID);
+
   /** Prevent initialisation of utility class */
   private NodeSorter() {}
 
   /**
    * Returns a list of nodes, sorted based on the ascending order of the {@link
-   * Node#getLineNumber()} value.
+   * Node#getLineNumber()} value. Nodes of the same line are sorted by their {@link
+   * Node#getIndex()}, so the order does not depend on the iteration order of the given set.
    *
    * @param pNodes A set of {@link Node}s
    * @return The sorted list
    */
   static List<Node> sort(final Set<Node> pNodes) {
-    final ListMultimap<Integer, Node> nodes = MultimapBuilder.treeKeys().arrayListValues().build();
-    final List<Node> result = Lists.newArrayList();
-    for (Node node : pNodes) {
-      final int lineNumber = node.getLineNumber();
-      nodes.put(lineNumber, node);
-    }
-    for (Integer lineNumber : nodes.keySet()) {
-      final List<Node> nodeList = nodes.get(lineNumber);
-      result.addAll(nodeList);
-    }
+    final List<Node> result = Lists.newArrayList(pNodes);
+    result.sort(ORDER);
     return result;
   }
 }
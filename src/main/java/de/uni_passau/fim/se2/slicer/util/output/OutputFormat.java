@@ -0,0 +1,47 @@
+package de.uni_passau.fim.se2.slicer.util.output;
+
+import java.io.IOException;
+
+/** Allocation-free formatting helpers for the extractors. */
+final class OutputFormat {
+
+  /** Prevent initialisation of utility class */
+  private OutputFormat() {}
+
+  /**
+   * Checks whether a string is a decimal integer, i.e., an optional minus sign followed by at
+   * least one digit.
+   *
+   * @param pText The string to check
+   * @return Whether the string is a decimal integer
+   */
+  static boolean isInteger(final String pText) {
+    final int start = pText.startsWith("-") ? 1 : 0;
+    if (pText.length() == start) {
+      return false;
+    }
+    for (int i = start; i < pText.length(); i++) {
+      final char c = pText.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Appends a text right-aligned in a field of the given width, like {@code %4s} would.
+   *
+   * @param pOutput The output to append to
+   * @param pText The text to append
+   * @param pWidth The minimal width of the field
+   * @throws IOException In case an IO error occurs
+   */
+  static void appendPadded(final Appendable pOutput, final CharSequence pText, final int pWidth)
+      throws IOException {
+    for (int i = pText.length(); i < pWidth; i++) {
+      pOutput.append(' ');
+    }
+    pOutput.append(pText);
+  }
+}
@@ -1,11 +1,11 @@
 package de.uni_passau.fim.se2.slicer.util.output;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.errorprone.annotations.Var;
 import de.uni_passau.fim.se2.slicer.util.cfg.LocalVariable;
 import de.uni_passau.fim.se2.slicer.util.cfg.LocalVariableTable;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -14,7 +14,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.LabelNode;
@@ -41,34 +40,42 @@ public class SourceLineExtractor implements Extractor {
     nodes = pNodes;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The source file is read line by line alongside the nodes, which are visited in the order of
+   * their line numbers.
+   */
   @Override
-  public String extract() throws IOException {
-    final List<String> lines = Lists.newArrayList();
-    try (Stream<String> fileLines = Files.lines(sourceFilePath, Charset.defaultCharset())) {
-      fileLines.forEach(lines::add);
-    }
-
+  public void extract(final Appendable pOutput) throws IOException {
     final List<Node> sortedNodes = NodeSorter.sort(nodes);
-    final StringBuilder builder = new StringBuilder();
-
-    // if the first or second node is a LabelNode, it refers to a dependency on one of the parameter
-    // variables
-    if (sortedNodes.size() > 1
-        && (sortedNodes.get(1).getInstruction() instanceof LabelNode
-            || sortedNodes.get(0).getInstruction() instanceof LabelNode)) {
-      builder.append(generateMethodDeclaration()).append("\n");
-    }
-    @Var int lastLineNumber = Integer.MIN_VALUE;
-    for (Node node : sortedNodes) {
-      final int lineNumber = node.getLineNumber();
-      if (lineNumber > 1 && lineNumber != lastLineNumber) {
-        final String line = lines.get(lineNumber - 1).trim();
-        builder.append(line).append("\n");
+    try (BufferedReader reader =
+        Files.newBufferedReader(sourceFilePath, Charset.defaultCharset())) {
+      // if the first or second node is a LabelNode, it refers to a dependency on one of the
+      // parameter variables
+      if (sortedNodes.size() > 1
+          && (sortedNodes.get(1).getInstruction() instanceof LabelNode
+              || sortedNodes.get(0).getInstruction() instanceof LabelNode)) {
+        pOutput.append(generateMethodDeclaration()).append('\n');
+      }
+      @Var int lastLineNumber = Integer.MIN_VALUE;
+      @Var int readLineNumber = 0;
+      @Var String line = null;
+      for (Node node : sortedNodes) {
+        final int lineNumber = node.getLineNumber();
+        if (lineNumber > 1 && lineNumber != lastLineNumber) {
+          while (readLineNumber < lineNumber) {
+            line = reader.readLine();
+            if (line == null) {
+              throw new IOException(sourceFilePath + " has no line " + lineNumber);
+            }
+            readLineNumber++;
+          }
+          pOutput.append(line.trim()).append('\n');
+        }
+        lastLineNumber = lineNumber;
       }
-      lastLineNumber = lineNumber;
     }
-    return builder.toString();
   }
 
   private String generateMethodDeclaration() {
@@ -98,7 +105,7 @@ public class SourceLineExtractor implements Extractor {
 
     final String arguments = String.join(", ", argumentTypeStrings);
 
-    return String.format("%s%s %s(%s) {", modifiers, returnTypeString, methodNode.name, arguments);
+    return modifiers + returnTypeString + " " + methodNode.name + "(" + arguments + ") {";
   }
 
   private String lookupLocalVariableName(
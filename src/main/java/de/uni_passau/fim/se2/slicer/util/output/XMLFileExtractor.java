@@ -2,7 +2,6 @@ package de.uni_passau.fim.se2.slicer.util.output;
 
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
 import java.io.IOException;
-import java.util.List;
 import java.util.Set;
 
 public class XMLFileExtractor implements Extractor {
@@ -13,32 +12,29 @@ public class XMLFileExtractor implements Extractor {
     nodes = pNodes;
   }
 
+  /** {@inheritDoc} */
   @Override
-  public String extract() throws IOException {
-    final List<Node> sortedNodes = NodeSorter.sort(nodes);
-    final StringBuilder builder = new StringBuilder();
-    builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-    builder.append("<report>\n");
+  public void extract(final Appendable pOutput) throws IOException {
+    pOutput.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    pOutput.append("<report>\n");
 
-    for (Node node : sortedNodes) {
-      final String prettyPrint = node.prettyPrint().trim();
+    for (Node node : NodeSorter.sort(nodes)) {
       final String nodeID = node.getID();
       if (nodeID.equals("\"start\"")) {
         continue;
-      } else if (nodeID.matches("-?\\d+")) {
-        builder.append(
-            String.format(
-                "  <line nr=\"%d\" id=\"%d\" instruction=\"%s\"/>\n",
-                node.getLineNumber(), Integer.parseInt(nodeID), prettyPrint));
-      } else {
-        builder.append(
-            String.format(
-                "  <line nr=\"%d\" id=\"%s\" instruction=\"%s\"/>\n",
-                node.getLineNumber(), nodeID, prettyPrint));
       }
+      // Instruction nodes are identified by their index, named nodes by their name
+      final int index = node.getIndex();
+      pOutput
+          .append("  <line nr=\"")
+          .append(Integer.toString(node.getLineNumber()))
+          .append("\" id=\"")
+          .append(index == Node.NO_INDEX ? nodeID : Integer.toString(index))
+          .append("\" instruction=\"")
+          .append(node.prettyPrint().trim())
+          .append("\"/>\n");
     }
 
-    builder.append("</report>\n");
-    return builder.toString();
+    pOutput.append("</report>\n");
   }
 }
@@ -0,0 +1,147 @@
+package de.uni_passau.fim.se2;
+
+import static com.google.common.truth.Truth.assert_;
+
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.batch.ClassRepository;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SlicerDaemonTest {
+
+  private static final String REQUEST =
+      "-c de.uni_passau.fim.se2.examples.Calculator"
+          + " -m \"evaluate:(Ljava/lang/String;)I\" -l 8 -v sum";
+
+  @Test
+  void test_tokenize() {
+    assert_()
+        .that(SlicerDaemon.tokenize(" -m \"a b:()V\"  -v 'x' -l8 \"\""))
+        .asList()
+        .containsExactly("-m", "a b:()V", "-v", "x", "-l8", "")
+        .inOrder();
+  }
+
+  @Test
+  void test_serve() throws Exception {
+    final SlicerDaemon daemon = new SlicerDaemon(new ClassRepository(null));
+    final StringWriter output = new StringWriter();
+    final String session = REQUEST + "\n-c Foo\n" + REQUEST + "\nquit\nignored\n";
+    daemon.serve(new BufferedReader(new StringReader(session)), output);
+
+    final String[] responses = output.toString().split("(?m)^\\.\n", -1);
+    assert_().that(responses).hasLength(4);
+    assert_().that(responses[0]).isNotEmpty();
+    assert_().that(responses[0]).doesNotContain(SlicerDaemon.ERROR_PREFIX);
+    assert_().that(responses[1]).startsWith(SlicerDaemon.ERROR_PREFIX);
+    assert_().that(responses[2]).isEqualTo(responses[0]);
+    assert_().that(responses[3]).isEmpty();
+  }
+
+  @Test
+  void test_serve_cache(@TempDir final Path pDirectory) throws Exception {
+    final StringWriter uncached = new StringWriter();
+    new SlicerDaemon(new ClassRepository(null))
+        .serve(new BufferedReader(new StringReader(REQUEST + "\n")), uncached);
+
+    // The first daemon fills the cache, the second one answers from it
+    for (int run = 0; run < 2; run++) {
+      final SlicerDaemon daemon =
+          new SlicerDaemon(new ClassRepository(new AnalysisCache(pDirectory)));
+      final StringWriter output = new StringWriter();
+      daemon.serve(new BufferedReader(new StringReader(REQUEST + "\n" + REQUEST + "\n")), output);
+
+      assert_().that(output.toString()).isEqualTo(uncached.toString() + uncached.toString());
+      try (Stream<Path> entries = Files.list(pDirectory)) {
+        assert_().that(entries.count()).isEqualTo(1L);
+      }
+    }
+  }
+
+  @Test
+  void test_serve_rejectsPaths() throws Exception {
+    final SlicerDaemon daemon = new SlicerDaemon(new ClassRepository(null));
+    final StringWriter output = new StringWriter();
+    final String session =
+        REQUEST + "\n" + REQUEST + " -t /tmp/slice.txt\n" + REQUEST + " -k cache\n";
+    daemon.serve(new BufferedReader(new StringReader(session)), output, false);
+
+    final String[] responses = output.toString().split("(?m)^\\.\n", -1);
+    assert_().that(responses).hasLength(4);
+    assert_().that(responses[0]).doesNotContain(SlicerDaemon.ERROR_PREFIX);
+    assert_()
+        .that(responses[1])
+        .isEqualTo(
+            SlicerDaemon.ERROR_PREFIX + "Option targetfile is not allowed in this session\n");
+    assert_()
+        .that(responses[2])
+        .isEqualTo(SlicerDaemon.ERROR_PREFIX + "Option cache is not allowed in this session\n");
+  }
+
+  @Test
+  void test_serve_rejectsIncompleteArguments() throws Exception {
+    final SlicerDaemon daemon = new SlicerDaemon(new ClassRepository(null));
+    final StringWriter output = new StringWriter();
+    final String session = "-w\n-w -c de.uni_passau.fim.se2.examples.Calculator -p 0\n";
+    daemon.serve(new BufferedReader(new StringReader(session)), output);
+
+    final String[] responses = output.toString().split("(?m)^\\.\n", -1);
+    assert_().that(responses).hasLength(3);
+    assert_()
+        .that(responses[0])
+        .isEqualTo(SlicerDaemon.ERROR_PREFIX + "Missing required option: class\n");
+    assert_()
+        .that(responses[1])
+        .isEqualTo(SlicerDaemon.ERROR_PREFIX + "Option parallelism needs a positive number\n");
+  }
+
+  @Test
+  void test_dotStuffing() throws Exception {
+    final StringWriter output = new StringWriter();
+    final SlicerDaemon.DotStuffingWriter writer = new SlicerDaemon.DotStuffingWriter(output);
+    writer.write(".a\nb.\n");
+    writer.write("!c\n..");
+    writer.write("d");
+    writer.endLine();
+
+    assert_().that(output.toString()).isEqualTo("..a\nb.\n.!c\n...d\n");
+  }
+
+  @Test
+  void test_serve_failedTask(@TempDir final Path pDirectory) throws Exception {
+    final Path taskFile = pDirectory.resolve("tasks.json");
+    final String task =
+        "{\"name\": \"%s\", \"package\": \"de.uni_passau.fim.se2.examples\","
+            + " \"class\": \"Calculator\", \"method\": \"%s\", \"line\": 8,"
+            + " \"variable\": \"sum\"}";
+    Files.write(
+        taskFile,
+        ("{\"tasks\": ["
+                + String.format(task, "good", "evaluate:(Ljava/lang/String;)I")
+                + ", "
+                + String.format(task, "bad", "missing:()V")
+                + "]}")
+            .getBytes(StandardCharsets.UTF_8));
+    final SlicerDaemon daemon = new SlicerDaemon(new ClassRepository(null));
+    final StringWriter output = new StringWriter();
+    final String session = "-f " + taskFile + " -t " + pDirectory.resolve("out") + "\n";
+    daemon.serve(new BufferedReader(new StringReader(session)), output);
+
+    // The good task is still sliced, but the request reports the failure of the other one
+    assert_().that(Files.exists(pDirectory.resolve("out").resolve("good.txt"))).isTrue();
+    assert_()
+        .that(output.toString())
+        .isEqualTo(
+            SlicerDaemon.ERROR_PREFIX
+                + "Some tasks failed\n"
+                + SlicerDaemon.END_OF_RESPONSE
+                + "\n");
+  }
+}
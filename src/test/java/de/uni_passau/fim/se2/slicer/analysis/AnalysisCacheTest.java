@@ -0,0 +1,55 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class AnalysisCacheTest {
+
+  @Test
+  void test_getContext() throws Exception {
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Calculator").accept(classNode, 0);
+    final Path directory = Files.createTempDirectory("cache");
+    final AnalysisCache cache = new AnalysisCache(directory);
+
+    for (MethodNode method : classNode.methods) {
+      final AnalysisContext computed = cache.getContext(classNode, method, false);
+      final AnalysisContext cached = cache.getContext(classNode, method, false);
+
+      assert_().that(cached).isNotSameInstanceAs(computed);
+      assert_()
+          .that(cached.getControlFlowGraph().getNodes())
+          .isEqualTo(computed.getControlFlowGraph().getNodes());
+      assert_()
+          .that(new ProgramDependenceGraph(cached).storeSlices())
+          .isEqualTo(new ProgramDependenceGraph(computed).storeSlices());
+    }
+    try (Stream<Path> entries = Files.list(directory)) {
+      assert_().that(entries.count()).isEqualTo((long) classNode.methods.size());
+    }
+  }
+
+  @Test
+  void test_computeKey() throws Exception {
+    final ClassNode first = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Calculator").accept(first, 0);
+    final ClassNode second = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Calculator").accept(second, 0);
+
+    final MethodNode method = first.methods.get(0);
+    assert_()
+        .that(AnalysisCache.computeKey(first, method))
+        .isEqualTo(AnalysisCache.computeKey(second, second.methods.get(0)));
+    assert_()
+        .that(AnalysisCache.computeKey(first, method))
+        .isNotEqualTo(AnalysisCache.computeKey(first, first.methods.get(1)));
+  }
+}
@@ -0,0 +1,81 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import static com.google.common.truth.Truth.assert_;
+
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class AnalysisContextTest {
+
+  @Test
+  void test_analysesShareArtefacts() {
+    final ClassNode classNode = SyntheticMethodGenerator.generate(Shape.NESTED_LOOPS, 40);
+    final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+    final AnalysisContext context = new AnalysisContext(classNode, methodNode);
+
+    final PostDominatorTree postDominatorTree = new PostDominatorTree(context);
+    final ControlDependenceGraph controlDependenceGraph = new ControlDependenceGraph(context);
+    final ProgramDependenceGraph firstPDG = new ProgramDependenceGraph(context);
+    final ProgramDependenceGraph secondPDG = new ProgramDependenceGraph(context);
+
+    final ProgramGraph cfg = context.getControlFlowGraph();
+    assert_().that(postDominatorTree.getControlFlowProgramGraph()).isSameInstanceAs(cfg);
+    assert_().that(controlDependenceGraph.getControlFlowProgramGraph()).isSameInstanceAs(cfg);
+    assert_().that(firstPDG.getControlFlowProgramGraph()).isSameInstanceAs(cfg);
+    assert_().that(secondPDG.getControlFlowProgramGraph()).isSameInstanceAs(cfg);
+
+    final Map.Entry<Node, Set<Node>> storeSlice =
+        firstPDG.storeSlices().entrySet().iterator().next();
+    final ProgramGraph pdg = context.getProgramDependenceGraph();
+    final ProgramGraph reversedPDG = context.getReversedProgramDependenceGraph();
+    final PostDominatorTree sharedTree = context.getPostDominatorTree();
+
+    // Further analyses only reuse what the first one has computed
+    assert_().that(secondPDG.backwardSlice(storeSlice.getKey())).isEqualTo(storeSlice.getValue());
+    assert_().that(context.getProgramDependenceGraph()).isSameInstanceAs(pdg);
+    assert_().that(context.getReversedProgramDependenceGraph()).isSameInstanceAs(reversedPDG);
+    assert_().that(context.getPostDominatorTree()).isSameInstanceAs(sharedTree);
+    assert_()
+        .that(context.getControlDependenceGraph())
+        .isSameInstanceAs(context.getControlDependenceGraph());
+    assert_()
+        .that(context.getDataDependenceGraph())
+        .isSameInstanceAs(context.getDataDependenceGraph());
+  }
+
+  @Test
+  void test_artefactsComputedOnce() {
+    final ClassNode classNode = SyntheticMethodGenerator.generate(Shape.NESTED_LOOPS, 40);
+    final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+    final AnalysisContext context = new AnalysisContext(classNode, methodNode);
+    final AnalysisMetrics metrics = new AnalysisMetrics(classNode.name, methodNode.name);
+    context.setMetrics(metrics);
+
+    new ProgramDependenceGraph(context).storeSlices();
+    final long postDominatorPasses =
+        metrics.phase(AnalysisMetrics.POST_DOMINATOR_TREE).getIterations();
+    final long dataDependenceVisits =
+        metrics.phase(AnalysisMetrics.DATA_DEPENDENCE_GRAPH).getIterations();
+
+    // A second analysis would add to the iterations of every fixpoint it ran again
+    new ProgramDependenceGraph(context).storeSlices();
+    new ControlDependenceGraph(context).computeResult();
+
+    assert_()
+        .that(postDominatorPasses)
+        .isEqualTo(context.getPostDominatorTree().getFixpointPasses());
+    assert_()
+        .that(metrics.phase(AnalysisMetrics.POST_DOMINATOR_TREE).getIterations())
+        .isEqualTo(postDominatorPasses);
+    assert_()
+        .that(metrics.phase(AnalysisMetrics.DATA_DEPENDENCE_GRAPH).getIterations())
+        .isEqualTo(dataDependenceVisits);
+  }
+}
@@ -0,0 +1,75 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import static com.google.common.truth.Truth.assert_;
+
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class AnalysisMetricsTest {
+
+  @Test
+  void test_phases() {
+    final ClassNode classNode = SyntheticMethodGenerator.generate(Shape.NESTED_LOOPS, 40);
+    final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+    final AnalysisContext context = new AnalysisContext(classNode, methodNode);
+    final AnalysisMetrics metrics = new AnalysisMetrics(classNode.name, methodNode.name);
+    context.setMetrics(metrics);
+
+    final ProgramDependenceGraph pdg = new ProgramDependenceGraph(context);
+    final Map.Entry<Node, Set<Node>> storeSlice = pdg.storeSlices().entrySet().iterator().next();
+    final Set<Node> slice = pdg.backwardSlice(storeSlice.getKey());
+
+    assert_()
+        .that(metrics.getPhases().stream().map(AnalysisMetrics.Phase::getName).toArray())
+        .asList()
+        .containsExactly(
+            AnalysisMetrics.CONTROL_FLOW_GRAPH,
+            AnalysisMetrics.POST_DOMINATOR_TREE,
+            AnalysisMetrics.CONTROL_DEPENDENCE_GRAPH,
+            AnalysisMetrics.DEF_USE_TABLE,
+            AnalysisMetrics.DATA_DEPENDENCE_GRAPH,
+            AnalysisMetrics.PROGRAM_DEPENDENCE_GRAPH,
+            AnalysisMetrics.REVERSED_PROGRAM_DEPENDENCE_GRAPH,
+            AnalysisMetrics.BACKWARD_SLICE)
+        .inOrder();
+
+    final int nodes = context.getControlFlowGraph().getNodes().size();
+    final AnalysisMetrics.Phase cfg = metrics.phase(AnalysisMetrics.CONTROL_FLOW_GRAPH);
+    assert_().that(cfg.getNodes()).isEqualTo(nodes);
+    assert_()
+        .that(cfg.getEdges())
+        .isEqualTo(context.getControlFlowGraph().compact().getEdgeCount());
+    assert_().that(cfg.getIterations()).isNull();
+    // Loops need a second pass to confirm the fixpoint
+    assert_()
+        .that(metrics.phase(AnalysisMetrics.POST_DOMINATOR_TREE).getIterations())
+        .isGreaterThan(1L);
+    assert_()
+        .that(metrics.phase(AnalysisMetrics.DATA_DEPENDENCE_GRAPH).getIterations())
+        .isGreaterThan((long) nodes);
+    assert_()
+        .that(metrics.phase(AnalysisMetrics.BACKWARD_SLICE).getNodes())
+        .isEqualTo(slice.size());
+  }
+
+  @Test
+  void test_toJson() {
+    final AnalysisMetrics metrics = new AnalysisMetrics("Foo", "bar:()V");
+    metrics.phase("first").addNanos(42);
+    metrics.phase("first").setNodes(3);
+    metrics.phase("second").addIterations(2);
+
+    assert_()
+        .that(metrics.toJson())
+        .isEqualTo(
+            "{\"className\":\"Foo\",\"method\":\"bar:()V\",\"phases\":["
+                + "{\"name\":\"first\",\"nanos\":42,\"nodes\":3},"
+                + "{\"name\":\"second\",\"nanos\":0,\"iterations\":2}]}");
+  }
+}
@@ -1,7 +1,20 @@
 package de.uni_passau.fim.se2.slicer.analysis;
 
+import static com.google.common.truth.Truth.assert_;
 import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
 import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
 
@@ -98,6 +111,81 @@ class ControlDependenceGraphTest {
 
 	}
 
+	@Test
+	void test_computeResult_branches() {
+		// if (a) { b } else { c }; d; if (d) { e }; exit
+		final ProgramGraph cfg = graph("entry->a", "a->b", "a->c", "b->d", "c->d", "d->e", "d->exit",
+				"e->exit");
+
+		assert_().that(edges(new ControlDependenceGraph(cfg).computeResult()))
+				.containsExactly("a->b", "a->c", "d->e");
+	}
+
+	@Test
+	void test_computeResult_nestedLoops() {
+		// while (outer) { while (inner) { body } latch }
+		final ProgramGraph cfg = graph("entry->outer", "outer->inner", "outer->exit", "inner->body",
+				"inner->latch", "body->inner", "latch->outer");
+
+		// Each loop condition also decides whether it is evaluated again
+		assert_().that(edges(new ControlDependenceGraph(cfg).computeResult()))
+				.containsExactly("outer->inner", "outer->latch", "outer->outer", "inner->body",
+						"inner->inner");
+	}
+
+	@Test
+	void test_computeResult_cannotReachExit() {
+		// if (a) { b } else { while (true) { c; if (d) { e } } }
+		final ProgramGraph cfg = graph("entry->a", "a->b", "a->c", "b->exit", "c->d", "d->e", "d->c",
+				"e->c");
+
+		// Nodes that cannot reach the exit have no post-dominators: they neither control nor depend
+		// on any node, and b post-dominates a, as only terminating paths are considered
+		final ProgramGraph cdg = new ControlDependenceGraph(cfg).computeResult();
+		assert_().that(cdg.getNodes()).containsExactlyElementsIn(cfg.getNodes());
+		assert_().that(edges(cdg)).isEmpty();
+	}
+
+	@Test
+	void test_computeResult_basicBlocks() {
+		final ClassNode classNode = SyntheticMethodGenerator.generate(Shape.NESTED_LOOPS, 24);
+		final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+
+		final ProgramGraph instructions = new AnalysisContext(classNode, methodNode, false)
+				.getControlDependenceGraph();
+		final ProgramGraph basicBlocks = new AnalysisContext(classNode, methodNode, true)
+				.getControlDependenceGraph();
+
+		assert_().that(edges(instructions)).isNotEmpty();
+		assert_().that(edges(basicBlocks)).containsExactlyElementsIn(edges(instructions));
+	}
+
+	/** Builds a graph of named nodes from edges written as {@code "from->to"}. */
+	private static ProgramGraph graph(final String... pEdges) {
+		final ProgramGraph graph = new ProgramGraph();
+		final Map<String, Node> nodes = Maps.newHashMap();
+		for (String edge : pEdges) {
+			final String[] ends = edge.split("->");
+			final Node from = nodes.computeIfAbsent(ends[0], Node::new);
+			final Node to = nodes.computeIfAbsent(ends[1], Node::new);
+			graph.addNode(from);
+			graph.addNode(to);
+			graph.addEdge(from, to);
+		}
+		return graph;
+	}
+
+	/** Lists the edges of a graph as {@code "from->to"}, using the unquoted node ids. */
+	private static Set<String> edges(final ProgramGraph pGraph) {
+		final Set<String> edges = Sets.newHashSet();
+		for (Node node : pGraph.getNodes()) {
+			for (Node successor : pGraph.getSuccessors(node)) {
+				edges.add((node.getID() + "->" + successor.getID()).replace("\"", ""));
+			}
+		}
+		return edges;
+	}
+
 	boolean equalGraphs(ProgramGraph firstGraph, ProgramGraph secondGraph) {
 
 		for (Node node : firstGraph.getNodes()) {
@@ -0,0 +1,136 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
+import de.uni_passau.fim.se2.slicer.util.cfg.CompactGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class MappedDependenceGraphTest {
+
+  @Test
+  void test_backwardSlice(@TempDir final Path pDirectory) throws Exception {
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Calculator").accept(classNode, 0);
+    final MethodNode methodNode =
+        classNode.methods.stream().filter(m -> m.name.equals("evaluate")).findFirst().get();
+    final AnalysisContext context = new AnalysisContext(classNode, methodNode);
+    final Path file = pDirectory.resolve("evaluate.bpdg");
+    MappedDependenceGraph.write(context, file);
+
+    final MappedDependenceGraph mapped = MappedDependenceGraph.open(file);
+    final ProgramDependenceGraph pdg = new ProgramDependenceGraph(context);
+    assert_()
+        .that(mapped.getEdgeCount())
+        .isEqualTo(context.getProgramDependenceGraph().compact().getEdgeCount());
+    for (Node node : context.getControlFlowGraph().getNodes()) {
+      if (node.getInstruction() == null) {
+        continue;
+      }
+      final int index = methodNode.instructions.indexOf(node.getInstruction());
+      final int id = mapped.findNode(index);
+      assert_().that(mapped.getInstructionIndex(id)).isEqualTo(index);
+      assert_().that(mapped.getLineNumber(id)).isEqualTo(node.getLineNumber());
+
+      final Set<Integer> expected = Sets.newHashSet();
+      for (Node sliced : pdg.backwardSlice(node)) {
+        expected.add(
+            sliced.getInstruction() == null
+                ? -1
+                : methodNode.instructions.indexOf(sliced.getInstruction()));
+      }
+      final BitSet slice = mapped.backwardSlice(id);
+      final Set<Integer> actual = Sets.newHashSet();
+      slice.stream().forEach(n -> actual.add(mapped.getInstructionIndex(n)));
+      assert_().that(actual).isEqualTo(expected);
+
+      final BitSet dataSlice = mapped.backwardSlice(id, MappedDependenceGraph.DATA_DEPENDENCE);
+      dataSlice.andNot(slice);
+      assert_().that(dataSlice.isEmpty()).isTrue();
+    }
+    assert_().that(mapped.findNode(methodNode.instructions.size())).isEqualTo(CompactGraph.NO_NODE);
+  }
+
+  @Test
+  void test_storeSlices(@TempDir final Path pDirectory) throws Exception {
+    final List<ClassNode> classes = Lists.newArrayList();
+    final ClassNode calculator = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Calculator").accept(calculator, 0);
+    classes.add(calculator);
+    // Exception handlers make the named entry node part of slices
+    classes.add(SyntheticMethodGenerator.generate(Shape.TRY_CATCH, 30));
+
+    for (ClassNode classNode : classes) {
+      for (MethodNode methodNode : classNode.methods) {
+        final AnalysisContext context = new AnalysisContext(classNode, methodNode);
+        final Path file = pDirectory.resolve(methodNode.name + ".bpdg");
+        MappedDependenceGraph.write(context, file);
+
+        final Map<Node, Set<Node>> expected = new ProgramDependenceGraph(context).storeSlices();
+        final Map<Node, Set<Node>> actual =
+            MappedDependenceGraph.open(file).storeSlices(methodNode.instructions);
+        assert_().that(actual).isEqualTo(expected);
+        assert_().that(actual.keySet()).containsExactlyElementsIn(expected.keySet()).inOrder();
+      }
+    }
+  }
+
+  @Test
+  void test_open_damaged(@TempDir final Path pDirectory) throws Exception {
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Calculator").accept(classNode, 0);
+    final MethodNode methodNode =
+        classNode.methods.stream().filter(m -> m.name.equals("evaluate")).findFirst().get();
+    final Path file = pDirectory.resolve("evaluate.bpdg");
+    // Writing twice replaces the graph without leaving temporary files behind
+    MappedDependenceGraph.write(new AnalysisContext(classNode, methodNode), file);
+    MappedDependenceGraph.write(new AnalysisContext(classNode, methodNode), file);
+    try (Stream<Path> entries = Files.list(pDirectory)) {
+      assert_().that(entries.collect(Collectors.toList())).containsExactly(file);
+    }
+
+    final byte[] bytes = Files.readAllBytes(file);
+    final int size = ByteBuffer.wrap(bytes).getInt(2 * Integer.BYTES);
+    final int byInstructionStart = (4 + 3 * size) * Integer.BYTES;
+    final int offsetsStart = (4 + 4 * size) * Integer.BYTES;
+    final int listsEnd =
+        offsetsStart
+            + (size + 1) * Integer.BYTES
+            + ByteBuffer.wrap(bytes).getInt(offsetsStart + size * Integer.BYTES);
+
+    final ByteBuffer invalidNode = ByteBuffer.wrap(bytes.clone());
+    invalidNode.putInt(byInstructionStart, size);
+    final ByteBuffer invalidOffset = ByteBuffer.wrap(bytes.clone());
+    invalidOffset.putInt(offsetsStart + Integer.BYTES, Integer.MAX_VALUE);
+    final ByteBuffer malformedList = ByteBuffer.wrap(bytes.clone());
+    malformedList.put(listsEnd - 1, (byte) 0xFF);
+    final ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1));
+
+    for (ByteBuffer damaged :
+        new ByteBuffer[] {invalidNode, invalidOffset, malformedList, truncated}) {
+      assertThrows(IOException.class, () -> new MappedDependenceGraph(damaged));
+    }
+    assert_().that(new MappedDependenceGraph(ByteBuffer.wrap(bytes)).size()).isEqualTo(size);
+  }
+}
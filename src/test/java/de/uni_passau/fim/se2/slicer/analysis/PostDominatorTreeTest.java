@@ -283,6 +283,46 @@ class PostDominatorTreeTest {
 
 	}
 
+	@Test
+	void test_computeImmediatePostDominators() {
+		final ProgramGraph pg = new ProgramGraph();
+		final Node Entry = new Node("Entry");
+		final Node n1 = new Node("n1");
+		final Node n2 = new Node("n2");
+		final Node n3 = new Node("n3");
+		final Node n4 = new Node("n4");
+		final Node Exit = new Node("Exit");
+
+		pg.addNode(Entry);
+		pg.addNode(n1);
+		pg.addNode(n2);
+		pg.addNode(n3);
+		pg.addNode(n4);
+		pg.addNode(Exit);
+		pg.addEdge(Entry, n1);
+		pg.addEdge(n1, n2);
+		pg.addEdge(n1, n3);
+		pg.addEdge(n2, n4);
+		pg.addEdge(n3, n4);
+		pg.addEdge(n4, n1);
+		pg.addEdge(n4, Exit);
+
+		PostDominatorTree PostDominatorGraph = new PostDominatorTree(pg);
+		int[] idoms = PostDominatorGraph.computeImmediatePostDominators();
+
+		assert_().that(PostDominatorGraph.getNode(idoms[PostDominatorGraph.getIndex(Entry)])).isEqualTo(n1);
+		assert_().that(PostDominatorGraph.getNode(idoms[PostDominatorGraph.getIndex(n1)])).isEqualTo(n4);
+		assert_().that(PostDominatorGraph.getNode(idoms[PostDominatorGraph.getIndex(n2)])).isEqualTo(n4);
+		assert_().that(PostDominatorGraph.getNode(idoms[PostDominatorGraph.getIndex(n3)])).isEqualTo(n4);
+		assert_().that(PostDominatorGraph.getNode(idoms[PostDominatorGraph.getIndex(n4)])).isEqualTo(Exit);
+		assert_().that(idoms[PostDominatorGraph.getIndex(Exit)]).isEqualTo(PostDominatorTree.UNDEFINED);
+
+		// Every caller gets its own copy of the cached result
+		idoms[PostDominatorGraph.getIndex(n1)] = PostDominatorTree.UNDEFINED;
+		assert_().that(PostDominatorGraph.getNode(PostDominatorGraph.getImmediatePostDominator(PostDominatorGraph.getIndex(n1)))).isEqualTo(n4);
+		assert_().that(PostDominatorGraph.computeImmediatePostDominators()).isNotSameInstanceAs(idoms);
+	}
+
 	boolean equalGraphs(ProgramGraph firstGraph, ProgramGraph secondGraph) {
 
 		for (Node node : firstGraph.getNodes()) {
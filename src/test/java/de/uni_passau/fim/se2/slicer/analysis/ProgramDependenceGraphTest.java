@@ -3,6 +3,7 @@ package de.uni_passau.fim.se2.slicer.analysis;
 import static com.google.common.truth.Truth.assert_;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -19,6 +20,7 @@ import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.VarInsnNode;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.Var;
 
@@ -78,6 +80,41 @@ class ProgramDependenceGraphTest {
 
 	}
 
+	@Test
+	void test_backwardSlices() throws Exception {
+		final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+		new ClassReader(className).accept(classNode, 0);
+		final MethodNode method = classNode.methods.stream()
+				.filter(m -> methodName.equals(m.name) && methodDescriptor.equals(m.desc)).findAny()
+				.orElseThrow();
+
+		final ProgramDependenceGraph pdg = new ProgramDependenceGraph(new AnalysisContext(classNode, method));
+		final List<Node> criteria = Lists.newArrayList(pdg.getControlFlowProgramGraph().getNodes());
+		final List<Set<Node>> slices = pdg.backwardSlices(criteria);
+
+		assert_().that(slices).hasSize(criteria.size());
+		for (int i = 0; i < criteria.size(); i++) {
+			assert_().that(slices.get(i)).containsExactlyElementsIn(pdg.backwardSlice(criteria.get(i)));
+		}
+	}
+
+	@Test
+	void test_storeSlices() throws Exception {
+		final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+		new ClassReader(className).accept(classNode, 0);
+		final MethodNode method = classNode.methods.stream()
+				.filter(m -> methodName.equals(m.name) && methodDescriptor.equals(m.desc)).findAny()
+				.orElseThrow();
+
+		final ProgramDependenceGraph pdg = new ProgramDependenceGraph(new AnalysisContext(classNode, method));
+		final Map<Node, Set<Node>> slices = pdg.storeSlices();
+
+		assert_().that(slices).isNotEmpty();
+		for (Map.Entry<Node, Set<Node>> slice : slices.entrySet()) {
+			assert_().that(slice.getValue()).containsExactlyElementsIn(pdg.backwardSlice(slice.getKey()));
+		}
+	}
+
 	private Set<Node> executeSlicing() throws IOException {
 		final ClassNode classNode = new ClassNode(Opcodes.ASM7);
 		final ClassReader classReader = new ClassReader(className);
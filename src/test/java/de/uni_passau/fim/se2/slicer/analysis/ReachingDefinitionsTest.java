@@ -0,0 +1,104 @@
+package de.uni_passau.fim.se2.slicer.analysis;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.Sets;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.cfg.ProgramGraph;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Checks the exact data dependences of small generated methods. Dependences are written as {@code
+ * "def->use"}, where both numbers are positions in the method's instruction list. A use is
+ * attributed to the instruction that consumes the loaded value, and the parameter {@code input} is
+ * defined by the method's first instruction.
+ */
+class ReachingDefinitionsTest {
+
+  /**
+   * Two nested loops:
+   *
+   * <pre>
+   *  4 ISTORE 1      result = 0
+   *  8 ISTORE 2      v2 = 0
+   * 12 IF_ICMPGE     while (v2 < input)
+   * 16 ISTORE 3        v3 = 0
+   * 20 IF_ICMPGE       while (v3 < input)
+   * 23 IINC 1 1          result++
+   * 26 IINC 3 1          v3++
+   * 31 IINC 2 1        v2++
+   * 37 IRETURN       return result
+   * </pre>
+   */
+  private static final Set<String> NESTED_LOOP_DEPENDENCES =
+      Sets.newHashSet(
+          // The loop conditions see the initial value and, over the back edge, the increment
+          "8->12", "31->12", "16->20", "26->20",
+          // Each increment reads the initial value and its own value of the previous iteration
+          "8->31", "31->31", "16->26", "26->26",
+          // result is carried around both loops and reaches the return on every exit
+          "4->23", "23->23", "4->37", "23->37",
+          // The parameter is never redefined
+          "0->12", "0->20");
+
+  @Test
+  void test_nestedLoops() {
+    assert_().that(dependences(Shape.NESTED_LOOPS, 16, false)).isEqualTo(NESTED_LOOP_DEPENDENCES);
+  }
+
+  @Test
+  void test_nestedLoops_basicBlocks() {
+    assert_().that(dependences(Shape.NESTED_LOOPS, 16, true)).isEqualTo(NESTED_LOOP_DEPENDENCES);
+  }
+
+  @Test
+  void test_straightLine_killsDefinitions() {
+    // 4 ISTORE 1 (result = 0), three times result = (result + input) ^ i with the stores at 12, 20
+    // and 28, then 32 IRETURN: each store kills the previous one, so every statement only sees the
+    // store right before it.
+    final Set<String> expected =
+        Sets.newHashSet("4->12", "12->20", "20->28", "28->32", "0->12", "0->20", "0->28");
+
+    assert_().that(dependences(Shape.STRAIGHT_LINE, 18, false)).isEqualTo(expected);
+    assert_().that(dependences(Shape.STRAIGHT_LINE, 18, true)).isEqualTo(expected);
+  }
+
+  @Test
+  void test_getVisits() throws Exception {
+    final ClassNode classNode = SyntheticMethodGenerator.generate(Shape.NESTED_LOOPS, 16);
+    final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+    final AnalysisContext context = new AnalysisContext(classNode, methodNode);
+    final ProgramGraph cfg = context.getControlFlowGraph();
+
+    final ReachingDefinitions reachingDefinitions =
+        new ReachingDefinitions(cfg, context.getDefUseTable());
+    reachingDefinitions.compute();
+
+    // The back edges force the loop bodies to be evaluated a second time
+    assert_().that(reachingDefinitions.getVisits()).isGreaterThan((long) cfg.getNodes().size());
+  }
+
+  private static Set<String> dependences(
+      final Shape pShape, final int pSize, final boolean pBasicBlocks) {
+    final ClassNode classNode = SyntheticMethodGenerator.generate(pShape, pSize);
+    final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+    final ProgramGraph dataDependenceGraph =
+        new AnalysisContext(classNode, methodNode, pBasicBlocks).getDataDependenceGraph();
+
+    final Set<String> result = Sets.newHashSet();
+    for (Node node : dataDependenceGraph.getNodes()) {
+      for (Node successor : dataDependenceGraph.getSuccessors(node)) {
+        result.add(
+            methodNode.instructions.indexOf(node.getInstruction())
+                + "->"
+                + methodNode.instructions.indexOf(successor.getInstruction()));
+      }
+    }
+    return result;
+  }
+}
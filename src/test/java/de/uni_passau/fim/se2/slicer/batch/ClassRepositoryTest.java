@@ -0,0 +1,192 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.analysis.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class ClassRepositoryTest {
+
+  private static final String[] CLASSES = {
+    "de.uni_passau.fim.se2.examples.Calculator",
+    "de.uni_passau.fim.se2.examples.Complex",
+    "de.uni_passau.fim.se2.examples.GCD",
+    "de.uni_passau.fim.se2.examples.NestedLoop",
+    "de.uni_passau.fim.se2.examples.Rational",
+    "de.uni_passau.fim.se2.examples.SimpleInteger",
+    "de.uni_passau.fim.se2.examples.TestClass"
+  };
+
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 4;
+
+  @Test
+  void test_getContext() throws Exception {
+    final ClassRepository repository = new ClassRepository(null);
+    final ClassNode classNode = repository.getClassNode(CLASSES[0]);
+    final MethodNode methodNode = classNode.methods.get(0);
+
+    assert_().that(repository.getClassNode(CLASSES[0])).isSameInstanceAs(classNode);
+    assert_()
+        .that(repository.getContext(classNode, methodNode, false))
+        .isSameInstanceAs(repository.getContext(classNode, methodNode, false));
+    assert_()
+        .that(repository.getContext(classNode, methodNode, true))
+        .isNotSameInstanceAs(repository.getContext(classNode, methodNode, false));
+  }
+
+  /**
+   * Slices all methods of the examples from many threads at once, sharing one repository that is
+   * too small to hold everything, such that threads race on shared contexts as well as on evicted
+   * and reloaded classes. Every slice has to match the one computed on a single thread.
+   */
+  @Test
+  void test_concurrentSlicing() throws Exception {
+    checkConcurrentSlicing(null);
+  }
+
+  /**
+   * Slices concurrently as above, with the contexts taken from a persistent cache that is filled
+   * while the threads run.
+   */
+  @Test
+  void test_concurrentSlicing_cache(@TempDir final Path pDirectory) throws Exception {
+    checkConcurrentSlicing(new AnalysisCache(pDirectory));
+    try (Stream<Path> entries = Files.list(pDirectory)) {
+      assert_().that(entries.allMatch(entry -> entry.toString().endsWith(".pdg"))).isTrue();
+    }
+  }
+
+  /**
+   * Requests the context of a method from many threads at once. Only one of them may analyse the
+   * method, while the others wait for and share its result.
+   */
+  @Test
+  void test_getContext_concurrentRequests(@TempDir final Path pDirectory) throws Exception {
+    final ClassRepository repository = new ClassRepository(new AnalysisCache(pDirectory));
+    final ClassNode classNode = repository.getClassNode(CLASSES[0]);
+    final MethodNode methodNode = classNode.methods.get(classNode.methods.size() - 1);
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final List<Future<AnalysisContext>> results = Lists.newArrayList();
+      for (int t = 0; t < THREADS; t++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return repository.getContext(classNode, methodNode, false);
+                }));
+      }
+      start.countDown();
+      final AnalysisContext context = results.get(0).get();
+      for (Future<AnalysisContext> result : results) {
+        assert_().that(result.get()).isSameInstanceAs(context);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    try (Stream<Path> entries = Files.list(pDirectory)) {
+      assert_().that(entries.count()).isEqualTo(1L);
+    }
+  }
+
+  private static void checkConcurrentSlicing(final AnalysisCache pCache) throws Exception {
+    final Map<String, Map<Node, Set<Node>>> expected = Maps.newHashMap();
+    final List<String> tasks = Lists.newArrayList();
+    for (String className : CLASSES) {
+      final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+      new ClassReader(className).accept(classNode, 0);
+      for (MethodNode methodNode : classNode.methods) {
+        for (boolean basicBlocks : new boolean[] {false, true}) {
+          final String task =
+              className + "#" + methodNode.name + methodNode.desc + "#" + basicBlocks;
+          final AnalysisContext context = new AnalysisContext(classNode, methodNode, basicBlocks);
+          expected.put(task, new ProgramDependenceGraph(context).storeSlices());
+          tasks.add(task);
+        }
+      }
+    }
+
+    final ClassRepository repository = new ClassRepository(pCache, 2, tasks.size() / 4);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Callable<Integer>> workers = Lists.newArrayList();
+    for (int t = 0; t < THREADS; t++) {
+      final Random random = new Random(t);
+      workers.add(
+          () -> {
+            start.await();
+            @Var int checked = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+              final List<String> order = Lists.newArrayList(tasks);
+              Collections.shuffle(order, random);
+              for (String task : order) {
+                final Map<Node, Set<Node>> slices = slice(repository, task);
+                assert_().withMessage(task).that(slices).isEqualTo(expected.get(task));
+                checked++;
+              }
+            }
+            return checked;
+          });
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final List<Future<Integer>> results = Lists.newArrayList();
+      for (Callable<Integer> worker : workers) {
+        results.add(executor.submit(worker));
+      }
+      start.countDown();
+      for (Future<Integer> result : results) {
+        assert_().that(result.get()).isEqualTo(ROUNDS * tasks.size());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Map<Node, Set<Node>> slice(final ClassRepository pRepository, final String pTask)
+      throws Exception {
+    final String[] parts = pTask.split("#");
+    final ClassNode classNode = pRepository.getClassNode(parts[0]);
+    for (MethodNode methodNode : classNode.methods) {
+      if ((methodNode.name + methodNode.desc).equals(parts[1])) {
+        final AnalysisContext context =
+            pRepository.getContext(classNode, methodNode, Boolean.parseBoolean(parts[2]));
+        final ProgramDependenceGraph pdg = new ProgramDependenceGraph(context);
+        final Map<Node, Set<Node>> slices = Maps.newLinkedHashMap();
+        // Single slices exercise the traversal, the store slices the shared reachability index
+        for (Node criterion : pdg.storeSlices().keySet()) {
+          slices.put(criterion, pdg.backwardSlice(criterion));
+        }
+        assert_().that(slices).isEqualTo(pdg.storeSlices());
+        return slices;
+      }
+    }
+    throw new IllegalStateException("Unknown method " + pTask);
+  }
+}
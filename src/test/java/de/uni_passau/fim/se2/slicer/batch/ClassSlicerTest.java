@@ -0,0 +1,35 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+
+class ClassSlicerTest {
+
+  @Test
+  void test_sliceClass() throws Exception {
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    new ClassReader("de.uni_passau.fim.se2.examples.Rational").accept(classNode, 0);
+
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    final List<MethodSlices> results;
+    try {
+      results = new ClassSlicer(pool, false).sliceClass(classNode);
+    } finally {
+      pool.shutdown();
+    }
+
+    assert_().that(results).hasSize(classNode.methods.size());
+    for (MethodSlices result : results) {
+      assert_().that(result.getError()).isNull();
+      final MethodSlices expected =
+          ClassSlicer.sliceMethod(classNode, result.getMethodNode(), false, null);
+      assert_().that(result.getSlices()).isEqualTo(expected.getSlices());
+    }
+  }
+}
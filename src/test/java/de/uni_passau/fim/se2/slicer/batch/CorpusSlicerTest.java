@@ -0,0 +1,157 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.examples.GCD;
+import de.uni_passau.fim.se2.examples.Rational;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisCache;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import de.uni_passau.fim.se2.slicer.util.jfr.ClassParsingEvent;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class CorpusSlicerTest {
+
+  @Test
+  void test_sliceCorpus() throws Exception {
+    final Path corpus = Files.createTempDirectory("corpus");
+    copyClass(GCD.class, corpus.resolve("GCD.class"));
+    Files.createDirectories(corpus.resolve("nested"));
+    copyClass(Rational.class, corpus.resolve("nested").resolve("Rational.class"));
+
+    @Var int expectedMethods = 0;
+    for (Class<?> clazz : new Class<?>[] {GCD.class, Rational.class}) {
+      final ClassNode classNode = new ClassNode();
+      new ClassReader(clazz.getName()).accept(classNode, 0);
+      for (MethodNode method : classNode.methods) {
+        if (method.instructions.size() > 0) {
+          expectedMethods++;
+        }
+      }
+    }
+
+    final Queue<MethodSlices> results = new ConcurrentLinkedQueue<>();
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    final int methods;
+    try {
+      methods = new CorpusSlicer(pool, false).sliceCorpus(corpus, results::add);
+    } finally {
+      pool.shutdown();
+    }
+
+    assert_().that(methods).isEqualTo(expectedMethods);
+    assert_().that(results).hasSize(expectedMethods);
+    final Set<String> classes = Sets.newHashSet();
+    for (MethodSlices result : results) {
+      assert_().that(result.getError()).isNull();
+      // Each task parses the code of its own method only
+      assert_().that(result.getClassNode().methods).containsExactly(result.getMethodNode());
+      classes.add(result.getClassNode().name);
+    }
+    assert_()
+        .that(classes)
+        .containsExactly(
+            "de/uni_passau/fim/se2/examples/GCD", "de/uni_passau/fim/se2/examples/Rational");
+  }
+
+  @Test
+  void test_sliceCorpus_cache(@TempDir final Path pDirectory) throws Exception {
+    final Path corpus = Files.createDirectories(pDirectory.resolve("corpus"));
+    copyClass(GCD.class, corpus.resolve("GCD.class"));
+    copyClass(Rational.class, corpus.resolve("Rational.class"));
+    final Path cacheDirectory = pDirectory.resolve("cache");
+
+    final Map<String, Map<Node, Set<Node>>> expected = slices(corpus, null);
+    // The first run writes the mapped graphs, the second one slices from them
+    for (int run = 0; run < 2; run++) {
+      assert_().that(slices(corpus, new AnalysisCache(cacheDirectory))).isEqualTo(expected);
+      try (Stream<Path> entries = Files.list(cacheDirectory)) {
+        assert_()
+            .that(entries.filter(entry -> entry.toString().endsWith(".bpdg")).count())
+            .isEqualTo((long) expected.size());
+      }
+    }
+  }
+
+  @Test
+  void test_sliceCorpus_events(@TempDir final Path pDirectory) throws Exception {
+    copyClass(GCD.class, pDirectory.resolve("GCD.class"));
+
+    final List<RecordedEvent> events;
+    final int methods;
+    try (Recording recording = new Recording()) {
+      recording.enable(ClassParsingEvent.class).withoutThreshold();
+      recording.start();
+      final ForkJoinPool pool = new ForkJoinPool(2);
+      try {
+        methods = new CorpusSlicer(pool, false).sliceCorpus(pDirectory, result -> {});
+      } finally {
+        pool.shutdown();
+      }
+      recording.stop();
+      final Path file = pDirectory.resolve("slicer.jfr");
+      recording.dump(file);
+      // The other slicer events are enabled by default
+      events =
+          RecordingFile.readAllEvents(file).stream()
+              .filter(event -> event.getEventType().getName().endsWith("ClassParsing"))
+              .collect(Collectors.toList());
+    }
+
+    // One event for the sizing pass and one for the parse of each task
+    assert_().that(events).hasSize(methods + 1);
+    for (RecordedEvent event : events) {
+      assert_().that(event.getString("className")).isEqualTo("de/uni_passau/fim/se2/examples/GCD");
+    }
+    assert_()
+        .that(events.stream().filter(event -> event.getInt("methodCount") == methods).count())
+        .isAtLeast(1L);
+  }
+
+  private static Map<String, Map<Node, Set<Node>>> slices(
+      final Path pCorpus, final AnalysisCache pCache) throws Exception {
+    final Map<String, Map<Node, Set<Node>>> slices = Maps.newConcurrentMap();
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      new CorpusSlicer(pool, false, pCache)
+          .sliceCorpus(
+              pCorpus,
+              result -> {
+                assert_().that(result.getError()).isNull();
+                slices.put(
+                    result.getClassNode().name + "." + result.getMethodName(),
+                    result.getSlices());
+              });
+    } finally {
+      pool.shutdown();
+    }
+    return slices;
+  }
+
+  private static void copyClass(final Class<?> pClass, final Path pTarget) throws Exception {
+    try (InputStream inputStream =
+        pClass.getResourceAsStream(pClass.getSimpleName() + ".class")) {
+      Files.copy(inputStream, pTarget);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package de.uni_passau.fim.se2.slicer.batch;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SlicingTaskTest {
+
+  @Test
+  void test_readTasks() throws Exception {
+    final Path taskFile = Files.createTempFile("tasks", ".json");
+    Files.write(
+        taskFile,
+        ("{\"tasks\": [{\"name\": \"GCD\", \"package\": \"de.uni_passau.fim.se2.examples\","
+                + " \"class\": \"GCD\", \"method\": \"gcd:(II)I\", \"line\": 9,"
+                + " \"variable\": \"x\", \"class_path\": \"/tmp\"}]}")
+            .getBytes(StandardCharsets.UTF_8));
+
+    final List<SlicingTask> tasks = SlicingTask.readTasks(taskFile);
+
+    assert_().that(tasks).hasSize(1);
+    final SlicingTask task = tasks.get(0);
+    assert_().that(task.getName()).isEqualTo("GCD");
+    assert_().that(task.getQualifiedClassName()).isEqualTo("de.uni_passau.fim.se2.examples.GCD");
+    assert_().that(task.getMethod()).isEqualTo("gcd:(II)I");
+    assert_().that(task.getLine()).isEqualTo(9);
+    assert_().that(task.getVariable()).isEqualTo("x");
+  }
+
+  @Test
+  void test_readTasks_malformed() throws Exception {
+    final Path taskFile = Files.createTempFile("tasks", ".json");
+    Files.write(taskFile, "{\"tasks\": [{\"name\": ".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> SlicingTask.readTasks(taskFile));
+
+    Files.write(taskFile, "{\"tasks\": [{\"name\": \"a\"}]}".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> SlicingTask.readTasks(taskFile));
+  }
+}
@@ -0,0 +1,315 @@
+package de.uni_passau.fim.se2.slicer.fixtures;
+
+import com.google.errorprone.annotations.Var;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Generates classes with a single large method of a given shape, to measure how the analyses scale
+ * with the size of a method.
+ *
+ * <p>The method is built directly with ASM's tree API, so it can exceed the 64 KiB code limit of
+ * class files; only {@link #generateBytes(Shape, int)} is bound to that limit, which is reached at
+ * about 50,000 instructions.
+ *
+ * <p>The generated method is {@code static int run(int input)}. Its result is kept in the local
+ * variable {@value #RESULT}, which is what the method returns. Every generated statement gets its
+ * own line number, and all locals are named in the local-variable table, so the usual slicing
+ * criteria can be given for the generated code.
+ */
+public final class SyntheticMethodGenerator {
+
+  /** The name of the generated method. */
+  public static final String METHOD_NAME = "run";
+
+  /** The descriptor of the generated method. */
+  public static final String METHOD_DESCRIPTOR = "(I)I";
+
+  /** The name of the local variable holding the result of the generated method. */
+  public static final String RESULT = "result";
+
+  /** The shapes of generated methods. */
+  public enum Shape {
+    /** Long straight-line code without any branch. */
+    STRAIGHT_LINE,
+    /** Loops nested into each other as deeply as the size allows. */
+    NESTED_LOOPS,
+    /** A single {@code tableswitch} with as many cases as the size allows. */
+    TABLE_SWITCH,
+    /** A chain of assignments where every statement defines a fresh local variable. */
+    MANY_LOCALS,
+    /** {@code try}/{@code catch} blocks nested into each other as deeply as the size allows. */
+    TRY_CATCH
+  }
+
+  private static final int INPUT_SLOT = 0;
+  private static final int RESULT_SLOT = 1;
+  private static final int FIRST_FREE_SLOT = 2;
+
+  /** The JVM limits the local variables of a method to 65535 slots. */
+  private static final int MAX_SLOT = 65534;
+
+  private final Shape shape;
+  private final int size;
+  private final Label start = new Label();
+  private final Label end = new Label();
+  private MethodVisitor method;
+  private int nextLine = 1;
+  private int nextSlot = FIRST_FREE_SLOT;
+
+  private SyntheticMethodGenerator(final Shape pShape, final int pSize) {
+    shape = pShape;
+    size = pSize;
+  }
+
+  /**
+   * Generates a class with a method of the given shape.
+   *
+   * @param pShape The shape of the method
+   * @param pSize The approximate number of instructions of the method
+   * @return The generated class
+   */
+  public static ClassNode generate(final Shape pShape, final int pSize) {
+    final ClassNode classNode = new ClassNode(Opcodes.ASM7);
+    new SyntheticMethodGenerator(pShape, pSize).generate(classNode);
+    return classNode;
+  }
+
+  /**
+   * Generates the class file of a class with a method of the given shape, including stack map
+   * frames, such that it can be loaded.
+   *
+   * @param pShape The shape of the method
+   * @param pSize The approximate number of instructions of the method
+   * @return The class file
+   * @throws org.objectweb.asm.MethodTooLargeException If the method exceeds the code size limit
+   */
+  public static byte[] generateBytes(final Shape pShape, final int pSize) {
+    final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+    generate(pShape, pSize).accept(writer);
+    return writer.toByteArray();
+  }
+
+  /**
+   * Provides the generated method of a class created by {@link #generate(Shape, int)}.
+   *
+   * @param pClassNode The generated class
+   * @return The generated method
+   */
+  public static MethodNode getMethod(final ClassNode pClassNode) {
+    for (MethodNode methodNode : pClassNode.methods) {
+      if (methodNode.name.equals(METHOD_NAME)) {
+        return methodNode;
+      }
+    }
+    throw new IllegalArgumentException(pClassNode.name + " is not a generated class");
+  }
+
+  /**
+   * Provides the name of the class generated for a shape and size.
+   *
+   * @param pShape The shape of the method
+   * @param pSize The approximate number of instructions of the method
+   * @return The internal name of the class
+   */
+  public static String getClassName(final Shape pShape, final int pSize) {
+    return "synthetic/" + pShape.name() + "_" + pSize;
+  }
+
+  private void generate(final ClassVisitor pVisitor) {
+    pVisitor.visit(
+        Opcodes.V1_8,
+        Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+        getClassName(shape, size),
+        null,
+        "java/lang/Object",
+        null);
+    method =
+        pVisitor.visitMethod(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, METHOD_NAME, METHOD_DESCRIPTOR, null, null);
+    method.visitCode();
+    method.visitLabel(start);
+    newLine();
+    method.visitInsn(Opcodes.ICONST_0);
+    method.visitVarInsn(Opcodes.ISTORE, RESULT_SLOT);
+
+    switch (shape) {
+      case STRAIGHT_LINE:
+        generateStraightLine();
+        break;
+      case NESTED_LOOPS:
+        generateNestedLoops();
+        break;
+      case TABLE_SWITCH:
+        generateTableSwitch();
+        break;
+      case MANY_LOCALS:
+        generateManyLocals();
+        break;
+      case TRY_CATCH:
+        generateTryCatch();
+        break;
+      default:
+        throw new AssertionError(shape);
+    }
+
+    newLine();
+    method.visitVarInsn(Opcodes.ILOAD, RESULT_SLOT);
+    method.visitInsn(Opcodes.IRETURN);
+    method.visitLabel(end);
+    method.visitLocalVariable("input", "I", null, start, end, INPUT_SLOT);
+    method.visitLocalVariable(RESULT, "I", null, start, end, RESULT_SLOT);
+    for (int slot = FIRST_FREE_SLOT; slot < nextSlot; slot++) {
+      method.visitLocalVariable("v" + slot, "I", null, start, end, slot);
+    }
+    // No statement needs more than two operands
+    method.visitMaxs(2, nextSlot);
+    method.visitEnd();
+    pVisitor.visitEnd();
+  }
+
+  /** {@code result = (result + input) ^ i;} - six instructions per statement. */
+  private void generateStraightLine() {
+    for (int i = 0; i < size / 6; i++) {
+      newLine();
+      method.visitVarInsn(Opcodes.ILOAD, RESULT_SLOT);
+      method.visitVarInsn(Opcodes.ILOAD, INPUT_SLOT);
+      method.visitInsn(Opcodes.IADD);
+      method.visitLdcInsn(i);
+      method.visitInsn(Opcodes.IXOR);
+      method.visitVarInsn(Opcodes.ISTORE, RESULT_SLOT);
+    }
+  }
+
+  /**
+   * {@code for (int v = 0; v < input; v++) { ... result++; ... }} - eight instructions per loop.
+   */
+  private void generateNestedLoops() {
+    final int depth = Math.max(1, Math.min(size / 8, MAX_SLOT - FIRST_FREE_SLOT));
+    final int[] slots = new int[depth];
+    final Label[] heads = new Label[depth];
+    final Label[] exits = new Label[depth];
+    for (int level = 0; level < depth; level++) {
+      slots[level] = newSlot();
+      heads[level] = new Label();
+      exits[level] = new Label();
+      newLine();
+      method.visitInsn(Opcodes.ICONST_0);
+      method.visitVarInsn(Opcodes.ISTORE, slots[level]);
+      method.visitLabel(heads[level]);
+      method.visitVarInsn(Opcodes.ILOAD, slots[level]);
+      method.visitVarInsn(Opcodes.ILOAD, INPUT_SLOT);
+      method.visitJumpInsn(Opcodes.IF_ICMPGE, exits[level]);
+    }
+    newLine();
+    method.visitIincInsn(RESULT_SLOT, 1);
+    for (int level = depth - 1; level >= 0; level--) {
+      newLine();
+      method.visitIincInsn(slots[level], 1);
+      method.visitJumpInsn(Opcodes.GOTO, heads[level]);
+      method.visitLabel(exits[level]);
+    }
+  }
+
+  /** {@code switch (input) { case i: result += i; break; ... }} - five instructions per case. */
+  private void generateTableSwitch() {
+    final int cases = Math.max(1, size / 5);
+    final Label[] labels = new Label[cases];
+    for (int i = 0; i < cases; i++) {
+      labels[i] = new Label();
+    }
+    final Label defaultLabel = new Label();
+    final Label exit = new Label();
+    newLine();
+    method.visitVarInsn(Opcodes.ILOAD, INPUT_SLOT);
+    method.visitTableSwitchInsn(0, cases - 1, defaultLabel, labels);
+    for (int i = 0; i < cases; i++) {
+      method.visitLabel(labels[i]);
+      newLine();
+      method.visitVarInsn(Opcodes.ILOAD, RESULT_SLOT);
+      method.visitLdcInsn(i);
+      method.visitInsn(Opcodes.IADD);
+      method.visitVarInsn(Opcodes.ISTORE, RESULT_SLOT);
+      method.visitJumpInsn(Opcodes.GOTO, exit);
+    }
+    method.visitLabel(defaultLabel);
+    newLine();
+    method.visitIincInsn(RESULT_SLOT, -1);
+    method.visitLabel(exit);
+  }
+
+  /** {@code int v_n = v_(n-1) + input;} - four instructions per statement. */
+  private void generateManyLocals() {
+    @Var int previous = INPUT_SLOT;
+    final int statements = Math.min(size / 4, MAX_SLOT - FIRST_FREE_SLOT);
+    for (int i = 0; i < statements; i++) {
+      final int slot = newSlot();
+      newLine();
+      method.visitVarInsn(Opcodes.ILOAD, previous);
+      method.visitVarInsn(Opcodes.ILOAD, INPUT_SLOT);
+      method.visitInsn(Opcodes.IADD);
+      method.visitVarInsn(Opcodes.ISTORE, slot);
+      previous = slot;
+    }
+    newLine();
+    method.visitVarInsn(Opcodes.ILOAD, previous);
+    method.visitVarInsn(Opcodes.ISTORE, RESULT_SLOT);
+  }
+
+  /**
+   * {@code try { ... } catch (RuntimeException e) { result--; }} - about five instructions per
+   * block, the innermost one divides by the input to be able to throw.
+   */
+  private void generateTryCatch() {
+    final int depth = Math.max(1, size / 5);
+    final Label[] starts = new Label[depth];
+    final Label[] ends = new Label[depth];
+    final Label[] handlers = new Label[depth];
+    final Label[] exits = new Label[depth];
+    for (int level = 0; level < depth; level++) {
+      starts[level] = new Label();
+      ends[level] = new Label();
+      handlers[level] = new Label();
+      exits[level] = new Label();
+    }
+    // Inner blocks have to be registered first, such that they take precedence
+    for (int level = depth - 1; level >= 0; level--) {
+      method.visitTryCatchBlock(
+          starts[level], ends[level], handlers[level], "java/lang/RuntimeException");
+    }
+    for (int level = 0; level < depth; level++) {
+      method.visitLabel(starts[level]);
+      newLine();
+      method.visitIincInsn(RESULT_SLOT, 1);
+    }
+    newLine();
+    method.visitVarInsn(Opcodes.ILOAD, RESULT_SLOT);
+    method.visitVarInsn(Opcodes.ILOAD, INPUT_SLOT);
+    method.visitInsn(Opcodes.IDIV);
+    method.visitVarInsn(Opcodes.ISTORE, RESULT_SLOT);
+    for (int level = depth - 1; level >= 0; level--) {
+      method.visitLabel(ends[level]);
+      method.visitJumpInsn(Opcodes.GOTO, exits[level]);
+      method.visitLabel(handlers[level]);
+      newLine();
+      method.visitInsn(Opcodes.POP);
+      method.visitIincInsn(RESULT_SLOT, -1);
+      method.visitLabel(exits[level]);
+    }
+  }
+
+  private void newLine() {
+    final Label label = new Label();
+    method.visitLabel(label);
+    method.visitLineNumber(nextLine++, label);
+  }
+
+  private int newSlot() {
+    return nextSlot++;
+  }
+}
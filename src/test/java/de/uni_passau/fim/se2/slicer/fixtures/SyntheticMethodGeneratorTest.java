@@ -0,0 +1,60 @@
+package de.uni_passau.fim.se2.slicer.fixtures;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.errorprone.annotations.Var;
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.analysis.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.slicer.fixtures.SyntheticMethodGenerator.Shape;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class SyntheticMethodGeneratorTest {
+
+  @Test
+  void test_generate() throws Exception {
+    for (Shape shape : Shape.values()) {
+      final ClassNode classNode = SyntheticMethodGenerator.generate(shape, 500);
+      final MethodNode methodNode = SyntheticMethodGenerator.getMethod(classNode);
+      assert_().that(countInstructions(methodNode)).isGreaterThan(250);
+      assert_().that(countInstructions(methodNode)).isAtMost(1000);
+
+      // The class file has to pass the verifier
+      final byte[] bytes = SyntheticMethodGenerator.generateBytes(shape, 500);
+      final Class<?> generated =
+          new ClassLoader(getClass().getClassLoader()) {
+            Class<?> define() {
+              return defineClass(null, bytes, 0, bytes.length);
+            }
+          }.define();
+      final Method run = generated.getMethod(SyntheticMethodGenerator.METHOD_NAME, int.class);
+      assert_().that(run.invoke(null, 1)).isNotNull();
+
+      final ProgramDependenceGraph pdg =
+          new ProgramDependenceGraph(new AnalysisContext(classNode, methodNode));
+      assert_().that(pdg.storeSlices()).isNotEmpty();
+    }
+  }
+
+  @Test
+  void test_generate_large() {
+    for (Shape shape : Shape.values()) {
+      final MethodNode methodNode =
+          SyntheticMethodGenerator.getMethod(SyntheticMethodGenerator.generate(shape, 100_000));
+      assert_().that(countInstructions(methodNode)).isGreaterThan(50_000);
+    }
+  }
+
+  private static int countInstructions(final MethodNode pMethodNode) {
+    @Var int count = 0;
+    for (AbstractInsnNode instruction : pMethodNode.instructions) {
+      if (instruction.getOpcode() >= 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -48,6 +48,55 @@ class CFGExtractorTest {
         .isEqualTo("foo: (I)D; double foo(int); [ArrayIndexOutOfBoundsException]");
   }
 
+  @Test
+  void test_getBasicBlockCFG() {
+    final ProgramGraph cfg = new ProgramGraph();
+    final Node entry = new Node("Entry");
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    final Node n3 = new Node("n3");
+    final Node n4 = new Node("n4");
+    final Node n5 = new Node("n5");
+    final Node exit = new Node("Exit");
+    cfg.addNode(entry);
+    cfg.addNode(n1);
+    cfg.addNode(n2);
+    cfg.addNode(n3);
+    cfg.addNode(n4);
+    cfg.addNode(n5);
+    cfg.addNode(exit);
+    cfg.addEdge(entry, n1);
+    cfg.addEdge(n1, n2);
+    cfg.addEdge(n2, n3);
+    cfg.addEdge(n2, n4);
+    cfg.addEdge(n3, n4);
+    cfg.addEdge(n4, n5);
+    cfg.addEdge(n5, exit);
+
+    final ProgramGraph blockGraph = CFGExtractor.getBasicBlockCFG(cfg);
+
+    assert_().that(blockGraph.getNodes()).hasSize(5);
+    final BasicBlockNode first = findBlock(blockGraph, n1);
+    final BasicBlockNode second = findBlock(blockGraph, n3);
+    final BasicBlockNode third = findBlock(blockGraph, n4);
+    assert_().that(first.getNodes()).containsExactly(n1, n2).inOrder();
+    assert_().that(second.getNodes()).containsExactly(n3);
+    assert_().that(third.getNodes()).containsExactly(n4, n5).inOrder();
+    assert_().that(blockGraph.getSuccessors(entry)).containsExactly(first);
+    assert_().that(blockGraph.getSuccessors(first)).containsExactly(second, third);
+    assert_().that(blockGraph.getSuccessors(second)).containsExactly(third);
+    assert_().that(blockGraph.getSuccessors(third)).containsExactly(exit);
+  }
+
+  private BasicBlockNode findBlock(final ProgramGraph pBlockGraph, final Node pNode) {
+    for (Node node : pBlockGraph.getNodes()) {
+      if (node instanceof BasicBlockNode && ((BasicBlockNode) node).getNodes().contains(pNode)) {
+        return (BasicBlockNode) node;
+      }
+    }
+    throw new AssertionError("No block contains " + pNode);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> List<T> mockList() {
     return mock(List.class);
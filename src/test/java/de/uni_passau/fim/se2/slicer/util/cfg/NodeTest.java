@@ -23,8 +23,8 @@ class NodeTest {
     firstInstruction = mock(AbstractInsnNode.class);
     AbstractInsnNode secondInstruction = mock(AbstractInsnNode.class);
 
-    firstNode = new Node(firstInstruction, 23);
-    secondNode = new Node(secondInstruction, 42);
+    firstNode = new Node(firstInstruction, 23, 1);
+    secondNode = new Node(secondInstruction, 42, 2);
     dummyNode = new Node("DUMMY");
   }
 
@@ -59,11 +59,18 @@ class NodeTest {
         () -> assertEquals("\"DUMMY\"", dummyNode.getID(), "Dummy ID did not match"));
   }
 
+  @Test
+  void test_getIndex() {
+    assertAll(
+        () -> assertEquals(1, firstNode.getIndex(), "Index did not match"),
+        () -> assertEquals(Node.NO_INDEX, dummyNode.getIndex(), "Dummy index did not match"));
+  }
+
   @Test
   void test_hashCode() {
     assertAll(
-        () -> assertEquals(80, firstNode.hashCode()),
-        () -> assertEquals(2138006363, dummyNode.hashCode()));
+        () -> assertEquals(1, firstNode.hashCode()),
+        () -> assertEquals(2138006332, dummyNode.hashCode()));
   }
 
   @Test
@@ -71,6 +78,8 @@ class NodeTest {
     assertAll(
         () -> assertEquals(firstNode, firstNode),
         () -> assertNotEquals(firstNode, secondNode),
+        () -> assertEquals(firstNode, new Node(firstInstruction, 23, 1)),
+        () -> assertEquals(dummyNode, new Node("DUMMY")),
         () -> assertNotEquals(null, firstNode),
         () -> assertNotEquals("", firstNode));
   }
@@ -1,7 +1,9 @@
 package de.uni_passau.fim.se2.slicer.util.cfg;
 
 import static com.google.common.truth.Truth.assert_;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 class ProgramGraphTest {
@@ -22,4 +24,75 @@ class ProgramGraphTest {
 
     assert_().that(leastCommonAncestor).isEqualTo(n2);
   }
+
+  @Test
+  void test_compact() {
+    final ProgramGraph pg = new ProgramGraph();
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    final Node n3 = new Node("n3");
+    pg.addNode(n1);
+    pg.addNode(n2);
+    pg.addEdge(n1, n2);
+    pg.addEdge(n1, n2);
+
+    final CompactGraph compact = pg.compact();
+    assert_().that(compact.size()).isEqualTo(2);
+    assert_().that(compact.getEdgeCount()).isEqualTo(1);
+    assert_().that(compact.getNode(compact.getEntry())).isEqualTo(n1);
+    assert_().that(compact.getNode(compact.getExit())).isEqualTo(n2);
+    assert_().that(pg.compact()).isSameInstanceAs(compact);
+
+    pg.addNode(n3);
+    pg.addEdge(n2, n3);
+
+    assert_().that(pg.compact()).isNotSameInstanceAs(compact);
+    assert_().that(pg.getSuccessors(n2)).containsExactly(n3);
+    assert_().that(pg.getPredecessors(n2)).containsExactly(n1);
+    assert_().that(pg.getExit()).isEqualTo(n3);
+  }
+
+  @Test
+  void test_getNodes() {
+    final ProgramGraph pg = new ProgramGraph();
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    pg.addNode(n1);
+    pg.addNode(n2);
+    pg.addEdge(n1, n2);
+    final ReachabilityIndex index = pg.getReachabilityIndex();
+
+    final Set<Node> nodes = pg.getNodes();
+    assert_().that(nodes).containsExactly(n1, n2).inOrder();
+    assertThrows(UnsupportedOperationException.class, () -> nodes.remove(n1));
+
+    final Node n3 = new Node("n3");
+    pg.addNode(n3);
+
+    // The returned set is a snapshot; the indices are rebuilt for the modified graph
+    assert_().that(nodes).containsExactly(n1, n2).inOrder();
+    assert_().that(pg.getNodes()).containsExactly(n1, n2, n3).inOrder();
+    assert_().that(pg.getReachabilityIndex()).isNotSameInstanceAs(index);
+  }
+
+  @Test
+  void test_getTransitiveSuccessors() {
+    final ProgramGraph pg = new ProgramGraph();
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    final Node n3 = new Node("n3");
+    final Node n4 = new Node("n4");
+    pg.addNode(n1);
+    pg.addNode(n2);
+    pg.addNode(n3);
+    pg.addNode(n4);
+    pg.addEdge(n1, n2);
+    pg.addEdge(n2, n3);
+    pg.addEdge(n3, n2);
+    pg.addEdge(n3, n4);
+
+    assert_().that(pg.getTransitiveSuccessors(n1)).containsExactly(n2, n3, n4);
+    assert_().that(pg.getTransitiveSuccessors(n2)).containsExactly(n2, n3, n4);
+    assert_().that(pg.getTransitiveSuccessors(n4)).isEmpty();
+  }
 }
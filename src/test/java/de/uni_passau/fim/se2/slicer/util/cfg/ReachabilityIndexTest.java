@@ -0,0 +1,67 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ReachabilityIndexTest {
+
+  @Test
+  void test_isReachable() {
+    final ProgramGraph pg = new ProgramGraph();
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    final Node n3 = new Node("n3");
+    final Node n4 = new Node("n4");
+    pg.addNode(n1);
+    pg.addNode(n2);
+    pg.addNode(n3);
+    pg.addNode(n4);
+    pg.addEdge(n1, n2);
+    pg.addEdge(n2, n3);
+    pg.addEdge(n3, n2);
+
+    final ReachabilityIndex index = pg.getReachabilityIndex();
+
+    assert_().that(index.getComponentCount()).isEqualTo(3);
+    assert_().that(index.isReachable(n1, n3)).isTrue();
+    assert_().that(index.isReachable(n3, n2)).isTrue();
+    assert_().that(index.isReachable(n3, n1)).isFalse();
+    assert_().that(index.isReachable(n4, n4)).isTrue();
+    assert_().that(index.isReachable(n1, n4)).isFalse();
+    assert_().that(index.isReachable(n1, new Node("n5"))).isFalse();
+  }
+
+  @Test
+  void test_isReachable_matchesTransitiveSuccessors() {
+    final Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      final ProgramGraph pg = new ProgramGraph();
+      final int size = 1 + random.nextInt(40);
+      final Node[] nodes = new Node[size];
+      for (int i = 0; i < size; i++) {
+        nodes[i] = new Node("n" + i);
+        pg.addNode(nodes[i]);
+      }
+      for (int e = 0; e < size * 3 / 2; e++) {
+        pg.addEdge(nodes[random.nextInt(size)], nodes[random.nextInt(size)]);
+      }
+
+      final CompactGraph compact = pg.compact();
+      final ReachabilityIndex matrix = new ReachabilityIndex(compact);
+      final ReachabilityIndex search = new ReachabilityIndex(compact, 0);
+      assert_().that(matrix.hasClosureMatrix()).isTrue();
+      assert_().that(search.hasClosureMatrix()).isFalse();
+      for (Node from : nodes) {
+        final Set<Node> reachable = pg.getTransitiveSuccessors(from);
+        reachable.add(from);
+        for (Node to : nodes) {
+          assert_().that(matrix.isReachable(from, to)).isEqualTo(reachable.contains(to));
+          assert_().that(search.isReachable(from, to)).isEqualTo(reachable.contains(to));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.errorprone.annotations.Var;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class StronglyConnectedComponentsTest {
+
+  @Test
+  void test_components() {
+    final ProgramGraph pg = new ProgramGraph();
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    final Node n3 = new Node("n3");
+    final Node n4 = new Node("n4");
+    pg.addNode(n1);
+    pg.addNode(n2);
+    pg.addNode(n3);
+    pg.addNode(n4);
+    pg.addEdge(n1, n2);
+    pg.addEdge(n2, n3);
+    pg.addEdge(n3, n2);
+    pg.addEdge(n2, n4);
+    pg.addEdge(n3, n4);
+
+    final CompactGraph graph = pg.compact();
+    final StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+
+    assert_().that(components.getComponentCount()).isEqualTo(3);
+    final int first = components.getComponent(graph.getId(n1));
+    final int loop = components.getComponent(graph.getId(n2));
+    final int last = components.getComponent(graph.getId(n4));
+    assert_().that(components.getComponent(graph.getId(n3))).isEqualTo(loop);
+    assert_().that(components.getMemberCount(loop)).isEqualTo(2);
+    // Reverse topological order, and both edges into n4 become a single condensation edge
+    assert_().that(last).isLessThan(loop);
+    assert_().that(loop).isLessThan(first);
+    assert_().that(components.getComponentSuccessorCount(loop)).isEqualTo(1);
+    assert_().that(components.getComponentSuccessor(loop, 0)).isEqualTo(last);
+    assert_().that(components.getComponentSuccessorCount(last)).isEqualTo(0);
+  }
+
+  @Test
+  void test_components_matchReachability() {
+    final Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      final ProgramGraph pg = new ProgramGraph();
+      final int size = 1 + random.nextInt(40);
+      final Node[] nodes = new Node[size];
+      for (int i = 0; i < size; i++) {
+        nodes[i] = new Node("n" + i);
+        pg.addNode(nodes[i]);
+      }
+      for (int e = 0; e < size * 3 / 2; e++) {
+        pg.addEdge(nodes[random.nextInt(size)], nodes[random.nextInt(size)]);
+      }
+
+      final CompactGraph graph = pg.compact();
+      final StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+      @Var int members = 0;
+      for (int component = 0; component < components.getComponentCount(); component++) {
+        members += components.getMemberCount(component);
+        for (int i = 0; i < components.getMemberCount(component); i++) {
+          assert_()
+              .that(components.getComponent(components.getMember(component, i)))
+              .isEqualTo(component);
+        }
+        for (int i = 0; i < components.getComponentSuccessorCount(component); i++) {
+          assert_().that(components.getComponentSuccessor(component, i)).isLessThan(component);
+        }
+      }
+      assert_().that(members).isEqualTo(size);
+      // Two nodes share a component exactly if they reach each other
+      for (Node from : nodes) {
+        for (Node to : nodes) {
+          final boolean mutual =
+              from.equals(to)
+                  || (pg.getTransitiveSuccessors(from).contains(to)
+                      && pg.getTransitiveSuccessors(to).contains(from));
+          assert_()
+              .that(
+                  components.getComponent(graph.getId(from))
+                      == components.getComponent(graph.getId(to)))
+              .isEqualTo(mutual);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package de.uni_passau.fim.se2.slicer.util.cfg;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.Sets;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TreeAncestorIndexTest {
+
+  @Test
+  void test_isTree() {
+    final ProgramGraph pg = new ProgramGraph();
+    final Node n1 = new Node("n1");
+    final Node n2 = new Node("n2");
+    final Node n3 = new Node("n3");
+    pg.addNode(n1);
+    pg.addNode(n2);
+    pg.addNode(n3);
+    pg.addEdge(n1, n2);
+    pg.addEdge(n1, n3);
+
+    assert_().that(pg.getTreeAncestorIndex().isTree()).isTrue();
+
+    pg.addEdge(n2, n3);
+
+    assert_().that(pg.getTreeAncestorIndex().isTree()).isFalse();
+  }
+
+  @Test
+  void test_getLeastCommonAncestor() {
+    final Random random = new Random(7);
+    for (int run = 0; run < 50; run++) {
+      final ProgramGraph pg = new ProgramGraph();
+      final int size = 1 + random.nextInt(60);
+      final Node[] nodes = new Node[size];
+      final int[] parents = new int[size];
+      for (int i = 0; i < size; i++) {
+        nodes[i] = new Node("n" + i);
+        pg.addNode(nodes[i]);
+        if (i > 0) {
+          parents[i] = random.nextInt(i);
+          pg.addEdge(nodes[parents[i]], nodes[i]);
+        }
+      }
+
+      final CompactGraph compact = pg.compact();
+      final TreeAncestorIndex index = pg.getTreeAncestorIndex();
+      assert_().that(index.isTree()).isTrue();
+      for (int first = 0; first < size; first++) {
+        final Set<Integer> ancestors = Sets.newHashSet();
+        for (int current = first; ; current = parents[current]) {
+          ancestors.add(current);
+          if (current == 0) {
+            break;
+          }
+        }
+        for (int second = 0; second < size; second++) {
+          int expected = second;
+          while (!ancestors.contains(expected)) {
+            expected = parents[expected];
+          }
+          final int actual =
+              index.getLeastCommonAncestor(
+                  compact.getId(nodes[first]), compact.getId(nodes[second]));
+          assert_().that(compact.getNode(actual)).isEqualTo(nodes[expected]);
+          assert_().that(pg.getLeastCommonAncestor(nodes[first], nodes[second]))
+              .isEqualTo(nodes[expected]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package de.uni_passau.fim.se2.slicer.util.jfr;
+
+import static com.google.common.truth.Truth.assert_;
+
+import de.uni_passau.fim.se2.slicer.analysis.AnalysisContext;
+import de.uni_passau.fim.se2.slicer.analysis.ProgramDependenceGraph;
+import de.uni_passau.fim.se2.slicer.batch.ClassRepository;
+import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+class MethodEventTest {
+
+  private static final String CLASS_NAME = "de.uni_passau.fim.se2.examples.Calculator";
+
+  @Test
+  void test_recording() throws Exception {
+    final List<RecordedEvent> events;
+    final Set<Node> slice;
+    final MethodNode methodNode;
+    try (Recording recording = new Recording()) {
+      recording.enable(ClassParsingEvent.class).withoutThreshold();
+      recording.enable(CFGExtractionEvent.class).withoutThreshold();
+      recording.enable(AnalysisEvent.class).withoutThreshold();
+      recording.enable(BackwardSliceEvent.class).withoutThreshold();
+      recording.start();
+
+      final ClassNode classNode = new ClassRepository(null).getClassNode(CLASS_NAME);
+      methodNode = classNode.methods.get(classNode.methods.size() - 1);
+      final ProgramDependenceGraph pdg =
+          new ProgramDependenceGraph(new AnalysisContext(classNode, methodNode));
+      final Node criterion = pdg.storeSlices().keySet().iterator().next();
+      slice = pdg.backwardSlice(criterion);
+
+      recording.stop();
+      final Path file = Files.createTempFile("slicer", ".jfr");
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+      Files.delete(file);
+    }
+
+    assert_()
+        .that(
+            events.stream()
+                .map(event -> event.getEventType().getName())
+                .distinct()
+                .collect(Collectors.toList()))
+        .containsExactly(
+            "de.uni_passau.fim.se2.slicer.ClassParsing",
+            "de.uni_passau.fim.se2.slicer.CFGExtraction",
+            "de.uni_passau.fim.se2.slicer.Analysis",
+            "de.uni_passau.fim.se2.slicer.BackwardSlice");
+
+    final String method = methodNode.name + ":" + methodNode.desc;
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().endsWith("ClassParsing")) {
+        continue;
+      }
+      assert_().that(event.getString("className")).isEqualTo(CLASS_NAME.replace('.', '/'));
+      assert_().that(event.getString("method")).isEqualTo(method);
+      assert_().that(event.getInt("instructionCount")).isEqualTo(methodNode.instructions.size());
+      assert_().that(event.getInt("nodes")).isGreaterThan(0);
+    }
+    final List<String> analyses =
+        events.stream()
+            .filter(event -> event.hasField("analysis"))
+            .map(event -> event.getString("analysis"))
+            .collect(Collectors.toList());
+    assert_().that(analyses).contains("ControlDependenceGraph");
+    assert_().that(analyses).contains("ProgramDependenceGraph");
+    final RecordedEvent sliceEvent =
+        events.stream().filter(event -> event.hasField("sliceSize")).findAny().get();
+    assert_().that(sliceEvent.getInt("sliceSize")).isEqualTo(slice.size());
+  }
+
+  @Test
+  void test_recording_basicBlocks() throws Exception {
+    final List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(AnalysisEvent.class).withoutThreshold();
+      recording.start();
+
+      final ClassNode classNode = new ClassRepository(null).getClassNode(CLASS_NAME);
+      final MethodNode methodNode = classNode.methods.get(classNode.methods.size() - 1);
+      new AnalysisContext(classNode, methodNode, true).getControlDependenceGraph();
+
+      recording.stop();
+      final Path file = Files.createTempFile("slicer", ".jfr");
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+      Files.delete(file);
+    }
+
+    // The dependences between basic blocks are an intermediate result without an event
+    final List<RecordedEvent> controlDependences =
+        events.stream()
+            .filter(event -> event.hasField("analysis"))
+            .filter(event -> "ControlDependenceGraph".equals(event.getString("analysis")))
+            .collect(Collectors.toList());
+    assert_().that(controlDependences).hasSize(1);
+    assert_()
+        .that(controlDependences.get(0).getString("className"))
+        .isEqualTo(CLASS_NAME.replace('.', '/'));
+  }
+}
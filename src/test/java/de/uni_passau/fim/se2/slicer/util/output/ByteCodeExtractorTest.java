@@ -7,8 +7,10 @@ import static org.powermock.api.mockito.PowerMockito.when;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import de.uni_passau.fim.se2.slicer.util.cfg.Node;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -56,6 +58,52 @@ class ByteCodeExtractorTest {
         .isEqualTo(expected);
   }
 
+  @Test
+  void test_extract_sameLineByIndex() throws IOException {
+    final Set<Node> sameLine = Sets.newLinkedHashSet();
+    for (int index : new int[] {39, 10, 20}) {
+      final Node node = mock(Node.class);
+      when(node.getLineNumber()).thenReturn(7);
+      when(node.getIndex()).thenReturn(index);
+      when(node.getID()).thenReturn(String.valueOf(index));
+      when(node.prettyPrint()).thenReturn("insn" + index);
+      sameLine.add(node);
+    }
+    final String expected =
+        "(line:    7, id:   10)  insn10\n"
+            + "(line:    7, id:   20)  insn20\n"
+            + "(line:    7, id:   39)  insn39\n";
+
+    assert_()
+        .withMessage("Nodes of one line are not ordered by index")
+        .that(new ByteCodeExtractor(sameLine).extract())
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void test_extractToStream() throws IOException {
+    final Extractor byteCodeExtractor = new ByteCodeExtractor(nodes);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byteCodeExtractor.extract(output);
+
+    assert_()
+        .withMessage("Result does not match expected")
+        .that(new String(output.toByteArray(), StandardCharsets.UTF_8))
+        .isEqualTo(byteCodeExtractor.extract());
+  }
+
+  @Test
+  void test_extractToFile_replacesContent() throws IOException {
+    final Path tempFile = Files.createTempFile(null, null);
+    Files.write(tempFile, "x".repeat(1000).getBytes(StandardCharsets.UTF_8));
+    new ByteCodeExtractor(nodes).extractToFile(tempFile);
+
+    assert_()
+        .withMessage("Stale content was not replaced")
+        .that(new String(Files.readAllBytes(tempFile), StandardCharsets.UTF_8))
+        .isEqualTo(new ByteCodeExtractor(nodes).extract());
+  }
+
   @Test
   void test_extractToFile() throws IOException {
     final Extractor byteCodeExtractor = new ByteCodeExtractor(nodes);
@@ -27,14 +27,17 @@ class XMLFileExtractorTest {
     when(firstNode.getLineNumber()).thenReturn(16);
     when(firstNode.prettyPrint()).thenReturn("iload");
     when(firstNode.getID()).thenReturn("42");
+    when(firstNode.getIndex()).thenReturn(42);
     final Node secondNode = mock(Node.class);
     when(secondNode.getLineNumber()).thenReturn(17);
     when(secondNode.prettyPrint()).thenReturn("istore ");
     when(secondNode.getID()).thenReturn("23");
+    when(secondNode.getIndex()).thenReturn(23);
     final Node dummyNode = mock(Node.class);
     when(dummyNode.getLineNumber()).thenReturn(-1);
     when(dummyNode.prettyPrint()).thenReturn("DUMMY");
     when(dummyNode.getID()).thenReturn("");
+    when(dummyNode.getIndex()).thenReturn(Node.NO_INDEX);
 
     nodes = Sets.newHashSet();
     nodes.add(secondNode);